@@ -0,0 +1,66 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Color ramp of the halo, computed again when the halo colors or its
+ * number of steps change
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SmartMenuColorRampBenchmark {
+	// Default colors of SmartMenuOverlayView
+	private static final int CENTER_COLOR = 0x64808080;
+	private static final int OUTSIDE_COLOR = 0x0affffff;
+
+	// Number of steps of the halo
+	@Param({"1", "4", "8", "32", "256"})
+	public int steps;
+
+	private int[]	mColors;
+	private float[]	mPositions;
+
+	@Setup
+	public void setUp() {
+		mColors = new int[2 * (steps + 1)];
+		mPositions = new float[2 * (steps + 1)];
+	}
+
+	@Benchmark
+	public int[] compute() {
+		SmartMenuColorRamp.compute(CENTER_COLOR, OUTSIDE_COLOR, steps, mColors, mPositions);
+		return mColors;
+	}
+}
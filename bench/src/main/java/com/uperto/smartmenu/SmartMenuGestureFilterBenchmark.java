@@ -0,0 +1,101 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Geometric checks done on a gesture before the recognition, and circle
+ * detection done while the gesture is drawn
+ * The gesture is a circle drawn with the given number of points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SmartMenuGestureFilterBenchmark {
+	private static final float CENTER_X = 240;
+	private static final float CENTER_Y = 400;
+	private static final float RADIUS = 100;
+
+	// Number of points of the gesture
+	@Param({"1", "4", "8", "32", "256"})
+	public int pointCount;
+
+	private float[]	mStroke;
+	private final SmartMenuGestureFilter	mFilter = new SmartMenuGestureFilter();
+	private final SmartMenuGestureFilter	mClosedShapeFilter = new SmartMenuGestureFilter();
+	private final SmartMenuCircleDetector	mDetector = new SmartMenuCircleDetector();
+
+	@Setup
+	public void setUp() {
+		mStroke = new float[2 * pointCount];
+		for (int i=0; i<pointCount; i++) {
+			double angle = 2 * Math.PI * i / pointCount;
+			mStroke[2 * i] = CENTER_X + (float) (Math.cos(angle) * RADIUS);
+			mStroke[2 * i + 1] = CENTER_Y + (float) (Math.sin(angle) * RADIUS);
+		}
+		mClosedShapeFilter.setClosedShapeChecks(true);
+	}
+
+	/**
+	 * Default checks: points, size and length
+	 */
+	@Benchmark
+	public boolean filter() {
+		mFilter.reset();
+		mFilter.addStroke(mStroke);
+		return mFilter.accept();
+	}
+
+	/**
+	 * Default checks, plus the closure and the turning angle
+	 */
+	@Benchmark
+	public boolean filterClosedShape() {
+		mClosedShapeFilter.reset();
+		mClosedShapeFilter.addStroke(mStroke);
+		return mClosedShapeFilter.accept();
+	}
+
+	/**
+	 * Points given one by one, as during ACTION_MOVE
+	 */
+	@Benchmark
+	public boolean detectCircle() {
+		mDetector.reset();
+		boolean detected = false;
+		for (int i=0; i<pointCount; i++) {
+			detected |= mDetector.addPoint(mStroke[2 * i], mStroke[2 * i + 1]);
+		}
+		return detected;
+	}
+}
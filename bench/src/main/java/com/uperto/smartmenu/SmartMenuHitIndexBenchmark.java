@@ -0,0 +1,117 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Item under the finger, as searched by the circle view for each point of
+ * a touch event
+ * Each invocation tests a batch of points, half of them on the items and
+ * half of them anywhere on the screen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SmartMenuHitIndexBenchmark {
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	private static final int BRANCHES_RADIUS = 24;
+	// Number of points tested by each invocation
+	private static final int POINTS = 64;
+
+	// Number of items of the menu
+	@Param({"1", "4", "8", "32", "256"})
+	public int itemCount;
+
+	private SmartMenuLayout		mLayout;
+	private SmartMenuHitIndex	mIndex;
+	private final float[]		mPoints = new float[2 * POINTS];
+
+	@Setup
+	public void setUp() {
+		mLayout = SmartMenuLayout.compute(WIDTH, HEIGHT, itemCount, BRANCHES_RADIUS);
+		mIndex = new SmartMenuHitIndex();
+		buildIndex();
+
+		Random random = new Random(42);
+		for (int i=0; i<POINTS; i++) {
+			if (i % 2 == 0) {
+				// Close to the center of an item
+				int item = random.nextInt(mLayout.branchCount);
+				mPoints[2 * i] = mLayout.getIconX(item) + random.nextFloat() * BRANCHES_RADIUS - BRANCHES_RADIUS / 2;
+				mPoints[2 * i + 1] = mLayout.getIconY(item) + random.nextFloat() * BRANCHES_RADIUS - BRANCHES_RADIUS / 2;
+			} else {
+				mPoints[2 * i] = random.nextFloat() * WIDTH;
+				mPoints[2 * i + 1] = random.nextFloat() * HEIGHT;
+			}
+		}
+	}
+
+	private void buildIndex() {
+		mIndex.build(mLayout.centerX, mLayout.centerY, mLayout.getRingRadius(), mLayout.branchesRadius, itemCount);
+	}
+
+	/**
+	 * Index built again, as when the layout changes
+	 */
+	@Benchmark
+	public SmartMenuHitIndex build() {
+		buildIndex();
+		return mIndex;
+	}
+
+	/**
+	 * Items under the points, as for ACTION_MOVE
+	 */
+	@Benchmark
+	public int hitTest() {
+		int hits = 0;
+		for (int i=0; i<POINTS; i++) {
+			hits += mIndex.hitTest(mPoints[2 * i], mPoints[2 * i + 1]);
+		}
+		return hits;
+	}
+
+	/**
+	 * Items in the direction of the points, as for the target prediction
+	 */
+	@Benchmark
+	public int sectorTest() {
+		int hits = 0;
+		for (int i=0; i<POINTS; i++) {
+			hits += mIndex.sectorTest(mPoints[2 * i], mPoints[2 * i + 1]);
+		}
+		return hits;
+	}
+}
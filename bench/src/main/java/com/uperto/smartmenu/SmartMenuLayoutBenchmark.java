@@ -0,0 +1,82 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Layout of the menu, as computed by the circle view when its size or its items change
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SmartMenuLayoutBenchmark {
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	private static final int BRANCHES_RADIUS = 24;
+
+	// Number of items of the menu
+	@Param({"1", "4", "8", "32", "256"})
+	public int itemCount;
+
+	private SmartMenuLayout mLayout;
+
+	@Setup
+	public void setUp() {
+		mLayout = SmartMenuLayout.compute(WIDTH, HEIGHT, itemCount, BRANCHES_RADIUS);
+	}
+
+	/**
+	 * A new layout, as after a size change
+	 */
+	@Benchmark
+	public SmartMenuLayout compute() {
+		return SmartMenuLayout.compute(WIDTH, HEIGHT, itemCount, BRANCHES_RADIUS);
+	}
+
+	/**
+	 * The previous layout is reused, as on each frame
+	 */
+	@Benchmark
+	public SmartMenuLayout obtain() {
+		return SmartMenuLayout.obtain(mLayout, WIDTH, HEIGHT, itemCount, BRANCHES_RADIUS);
+	}
+
+	/**
+	 * Rotation between portrait and landscape
+	 */
+	@Benchmark
+	public SmartMenuLayout rotate() {
+		mLayout = SmartMenuLayout.obtain(mLayout, mLayout.height, mLayout.width, itemCount, BRANCHES_RADIUS);
+		return mLayout;
+	}
+}
@@ -19,8 +19,6 @@ package com.uperto.smartmenu;
 import android.app.Activity;
 import android.gesture.GestureLibraries;
 import android.gesture.GestureLibrary;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.os.Bundle;
@@ -50,11 +48,21 @@ public class SmartMenuActivity extends Activity {
         super.onCreate(savedInstanceState);
         
         setContentView(R.layout.main);
+        final SmartMenuOverlayView smartMenu = (SmartMenuOverlayView) findViewById(R.id.gestures);
+        
+        // After a configuration change, reuse the gesture library and the icons
+        SmartMenuOverlayView.RetainedState state =
+        	(SmartMenuOverlayView.RetainedState) getLastNonConfigurationInstance();
+        smartMenu.restoreState(state);
         
         // Init the gesture library
-        mLibrary = GestureLibraries.fromRawResource(this, R.raw.gestures);
-        if (!mLibrary.load()) {
-        	finish();
+        if (state != null && state.getGestureLibrary() != null) {
+        	mLibrary = state.getGestureLibrary();
+        } else {
+        	mLibrary = GestureLibraries.fromRawResource(this, R.raw.gestures);
+        	if (!mLibrary.load()) {
+        		finish();
+        	}
         }
         
         mText = (TextView) findViewById(R.id.text);
@@ -79,119 +87,72 @@ public class SmartMenuActivity extends Activity {
         });
         
         // Init the SmartMenu with our gesture library
-        final SmartMenuOverlayView smartMenu = (SmartMenuOverlayView) findViewById(R.id.gestures);
         smartMenu.setGestureLibrary(mLibrary);
+        // Our library only contains circles, other shapes can be rejected early
+        smartMenu.getGestureFilter().setClosedShapeChecks(true);
         
         final Paint painter = smartMenu.getPainter();
         
-        // Add items to the menu
-        Bitmap bmp = BitmapFactory.decodeResource(getResources(), R.drawable.icon1);
-    	smartMenu.addMenuItem(new SmartMenuOverlayView.SmartMenuItem("Background", bmp) {
-    		public boolean onItemSelected() {
-    			if (mChangedBackgroundColor) {
-    				smartMenu.setBackgroundColor(Color.argb(200, 0, 0, 0));
-    				mChangedBackgroundColor = false;
-    			} else {
-    				smartMenu.setBackgroundColor(Color.argb(200, 255, 0, 0));
-    				mChangedBackgroundColor = true;
-    			}
-				return true;
-    		}
-    	});
-    	
-    	bmp = BitmapFactory.decodeResource(getResources(), R.drawable.icon2);
-    	smartMenu.addMenuItem(new SmartMenuOverlayView.SmartMenuItem("Painter color", bmp) {
-    		public boolean onItemSelected() {
-    			if (mChangedPainterColor) {
-    				painter.setColor(Color.WHITE);
-    				mChangedPainterColor = false;
-    			} else {
-    				painter.setColor(Color.GREEN);
-    				mChangedPainterColor = true;
-    			}
-				return true;
-    		}
-    	});
-    	
-    	bmp = BitmapFactory.decodeResource(getResources(), R.drawable.icon3);
-    	smartMenu.addMenuItem(new SmartMenuOverlayView.SmartMenuItem("Stroke width", bmp) {
-    		public boolean onItemSelected() {
-    			if (mChangedPainterStrokeWidth) {
-    				painter.setStrokeWidth(3);
-    				mChangedPainterStrokeWidth = false;
-    			} else {
-    				painter.setStrokeWidth(1);
-    				mChangedPainterStrokeWidth = true;
-    			}
-				return true;
-    		}
-    	});
-    	
-    	bmp = BitmapFactory.decodeResource(getResources(), R.drawable.icon4);
-    	smartMenu.addMenuItem(new SmartMenuOverlayView.SmartMenuItem("Halo center color", bmp) {
-    		public boolean onItemSelected() {
-    			if (mChangedHaloCenterColor) {
-    				smartMenu.setHaloCenterColor(Color.argb(100, 128, 128, 128));
-    				mChangedHaloCenterColor = false;
-    			} else {
-    				smartMenu.setHaloCenterColor(Color.argb(100, 255, 0, 0));
-    				mChangedHaloCenterColor = true;
-    			}
-				return true;
-    		}
-    	});
-    	
-    	bmp = BitmapFactory.decodeResource(getResources(), R.drawable.icon5);
-    	smartMenu.addMenuItem(new SmartMenuOverlayView.SmartMenuItem("Halo out color", bmp) {
-    		public boolean onItemSelected() {
-    			if (mChangedHaloOutsideColor) {
-    				smartMenu.setHaloOutsideColor(Color.argb(10, 255, 255, 255));
-    				mChangedHaloOutsideColor = false;
-    			} else {
-    				smartMenu.setHaloOutsideColor(Color.argb(20, 0, 0, 255));
-    				mChangedHaloOutsideColor = true;
-    			}
-				return true;
-    		}
-    	});
-    	
-    	bmp = BitmapFactory.decodeResource(getResources(), R.drawable.icon6);
-    	smartMenu.addMenuItem(new SmartMenuOverlayView.SmartMenuItem("Halo gradient", bmp) {
-    		public boolean onItemSelected() {
-    			if (mChangedHaloGradient) {
-    				smartMenu.setHaloGradient(15);
-    				mChangedHaloGradient = false;
-    			} else {
-    				smartMenu.setHaloGradient(5);
-    				mChangedHaloGradient = true;
-    			}
-				return true;
-    		}
-    	});
-    	
-    	bmp = BitmapFactory.decodeResource(getResources(), R.drawable.icon7);
-    	smartMenu.addMenuItem(new SmartMenuOverlayView.SmartMenuItem("Halo radius", bmp) {
-    		public boolean onItemSelected() {
-    			if (mChangedHaloRadius) {
-    				smartMenu.setHaloRadius(30);
-    				mChangedHaloRadius = false;
-    			} else {
-    				smartMenu.setHaloRadius(60);
-    				mChangedHaloRadius = true;
-    			}
+        // Add the items declared in res/xml/smartmenu.xml, icons are decoded
+        // in background when the menu is first opened
+        new SmartMenuInflater(this).inflate(R.xml.smartmenu, smartMenu, new SmartMenuInflater.OnMenuActionListener() {
+			@Override
+			public boolean onMenuAction(int actionId) {
+				switch (actionId) {
+				case R.id.menu_background:
+					mChangedBackgroundColor = !mChangedBackgroundColor;
+					smartMenu.setBackgroundColor(mChangedBackgroundColor
+							? Color.argb(200, 255, 0, 0) : Color.argb(200, 0, 0, 0));
+					break;
+				case R.id.menu_painter_color:
+					mChangedPainterColor = !mChangedPainterColor;
+					painter.setColor(mChangedPainterColor ? Color.GREEN : Color.WHITE);
+					break;
+				case R.id.menu_stroke_width:
+					mChangedPainterStrokeWidth = !mChangedPainterStrokeWidth;
+					painter.setStrokeWidth(mChangedPainterStrokeWidth ? 1 : 3);
+					break;
+				case R.id.menu_halo_center_color:
+					mChangedHaloCenterColor = !mChangedHaloCenterColor;
+					smartMenu.setHaloCenterColor(mChangedHaloCenterColor
+							? Color.argb(100, 255, 0, 0) : Color.argb(100, 128, 128, 128));
+					break;
+				case R.id.menu_halo_outside_color:
+					mChangedHaloOutsideColor = !mChangedHaloOutsideColor;
+					smartMenu.setHaloOutsideColor(mChangedHaloOutsideColor
+							? Color.argb(20, 0, 0, 255) : Color.argb(10, 255, 255, 255));
+					break;
+				case R.id.menu_halo_gradient:
+					mChangedHaloGradient = !mChangedHaloGradient;
+					smartMenu.setHaloGradient(mChangedHaloGradient ? 5 : 15);
+					break;
+				case R.id.menu_halo_radius:
+					mChangedHaloRadius = !mChangedHaloRadius;
+					smartMenu.setHaloRadius(mChangedHaloRadius ? 60 : 30);
+					break;
+				default:
+				}
 				return true;
-    		}
-    	});
-    	
-    	if (savedInstanceState != null && savedInstanceState.getBoolean("menuOpened")) {
+			}
+        });
+        
+    	// The retained state already reopened the menu
+    	if (state == null && savedInstanceState != null && savedInstanceState.getBoolean("menuOpened")) {
     		smartMenu.open(false);
     	}
     }
     
+    @Override
+    public Object onRetainNonConfigurationInstance() {
+    	SmartMenuOverlayView smartMenu = (SmartMenuOverlayView) findViewById(R.id.gestures);
+    	return smartMenu.retainState();
+    }
+    
     @Override
     protected void onSaveInstanceState(Bundle outState) {
     	super.onSaveInstanceState(outState);
     	
-    	outState.putBoolean("menuOpened", true);
+    	SmartMenuOverlayView smartMenu = (SmartMenuOverlayView) findViewById(R.id.gestures);
+    	outState.putBoolean("menuOpened", smartMenu.isOpened());
     }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Detect a circle drawn by the user while the stroke is performed
+ * Points are given one by one, and only running sums are kept, so the
+ * memory used does not depend on the length of the stroke.
+ *
+ * A circle is detected when the stroke turned a full round, came back
+ * close to its start, and its points stay at a regular distance from
+ * their centroid.
+ */
+public class SmartMenuCircleDetector {
+	// Points closer than this to the previous one are ignored
+	private static final float MIN_SEGMENT = 2f;
+
+	// Thresholds
+	private int		mMinPoints = 12;
+	private float	mMinRadius = 15;
+	private float	mMinTurning = (float) (1.7 * Math.PI);
+	private float	mMaxClosure = 0.5f;
+	private float	mMaxRadiusDeviation = 0.25f;
+
+	// Coordinates are stored relatively to the first point to keep the sums small
+	private float	mStartX, mStartY;
+	private float	mLastX, mLastY;
+	private float	mPreviousDX, mPreviousDY;
+	private boolean	mHasPrevious;
+	private float	mTurning;
+	private boolean	mDetected;
+
+	// Running sums used to compute the centroid and the radius variance
+	private int		mCount;
+	private double	mSumX, mSumY;
+	private double	mSumXX, mSumYY, mSumXY;
+	private double	mSumQ, mSumQQ, mSumQX, mSumQY;
+
+	public SmartMenuCircleDetector() {
+		reset();
+	}
+
+	/**
+	 * Start a new stroke
+	 */
+	public void reset() {
+		mCount = 0;
+		mSumX = mSumY = 0;
+		mSumXX = mSumYY = mSumXY = 0;
+		mSumQ = mSumQQ = mSumQX = mSumQY = 0;
+		mTurning = 0;
+		mHasPrevious = false;
+		mDetected = false;
+	}
+
+	/**
+	 * Add a point of the current stroke
+	 * @param x
+	 * @param y
+	 * @return true if this point closes a circle, only once per stroke
+	 */
+	public boolean addPoint(float x, float y) {
+		if (mDetected) {
+			return false;
+		}
+
+		if (mCount == 0) {
+			mStartX = x;
+			mStartY = y;
+		} else {
+			float dx = x - mLastX;
+			float dy = y - mLastY;
+			if (dx * dx + dy * dy < MIN_SEGMENT * MIN_SEGMENT) {
+				return false;
+			}
+			if (mHasPrevious) {
+				float cross = mPreviousDX * dy - mPreviousDY * dx;
+				float dot = mPreviousDX * dx + mPreviousDY * dy;
+				mTurning += (float) Math.atan2(cross, dot);
+			}
+			mPreviousDX = dx;
+			mPreviousDY = dy;
+			mHasPrevious = true;
+		}
+		mLastX = x;
+		mLastY = y;
+
+		double px = x - mStartX;
+		double py = y - mStartY;
+		double q = px * px + py * py;
+		mCount++;
+		mSumX += px;
+		mSumY += py;
+		mSumXX += px * px;
+		mSumYY += py * py;
+		mSumXY += px * py;
+		mSumQ += q;
+		mSumQQ += q * q;
+		mSumQX += q * px;
+		mSumQY += q * py;
+
+		mDetected = isCircle();
+		return mDetected;
+	}
+
+	private boolean isCircle() {
+		if (mCount < mMinPoints || Math.abs(mTurning) < mMinTurning) {
+			return false;
+		}
+
+		// Centroid of the points
+		double n = mCount;
+		double cx = mSumX / n;
+		double cy = mSumY / n;
+		double c2 = cx * cx + cy * cy;
+
+		// Mean and variance of the squared distance to the centroid,
+		// expanded from d^2 = q - 2 c.p + |c|^2
+		double meanCP = (cx * mSumX + cy * mSumY) / n;
+		double mean = mSumQ / n - 2 * meanCP + c2;
+		if (mean < mMinRadius * mMinRadius) {
+			return false;
+		}
+		double meanQCP = (cx * mSumQX + cy * mSumQY) / n;
+		double meanCP2 = (cx * cx * mSumXX + 2 * cx * cy * mSumXY + cy * cy * mSumYY) / n;
+		double meanSquare = mSumQQ / n - 4 * meanQCP + 2 * c2 * mSumQ / n
+				+ 4 * meanCP2 - 4 * c2 * meanCP + c2 * c2;
+		double variance = Math.max(0, meanSquare - mean * mean);
+
+		// The deviation of the squared radius is about twice the deviation of the radius
+		if (Math.sqrt(variance) / mean > 2 * mMaxRadiusDeviation) {
+			return false;
+		}
+
+		// The stroke must end close to its start
+		float dx = mLastX - mStartX;
+		float dy = mLastY - mStartY;
+		double closure = mMaxClosure * Math.sqrt(mean);
+		return dx * dx + dy * dy <= closure * closure;
+	}
+
+	/**
+	 * @param minPoints minimal number of points of a circle
+	 */
+	public void setMinPoints(int minPoints) {
+		this.mMinPoints = minPoints;
+	}
+
+	/**
+	 * @param minRadius minimal radius of a circle, in pixels
+	 */
+	public void setMinRadius(float minRadius) {
+		this.mMinRadius = minRadius;
+	}
+
+	/**
+	 * @param minTurning minimal total turning angle of the stroke, in radians
+	 */
+	public void setMinTurning(float minTurning) {
+		this.mMinTurning = minTurning;
+	}
+
+	/**
+	 * @param maxClosure maximal distance between the start and the current point,
+	 * relatively to the radius
+	 */
+	public void setMaxClosure(float maxClosure) {
+		this.mMaxClosure = maxClosure;
+	}
+
+	/**
+	 * @param maxRadiusDeviation maximal standard deviation of the distance to the
+	 * centroid, relatively to the radius
+	 */
+	public void setMaxRadiusDeviation(float maxRadiusDeviation) {
+		this.mMaxRadiusDeviation = maxRadiusDeviation;
+	}
+}
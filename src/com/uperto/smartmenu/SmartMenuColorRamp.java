@@ -0,0 +1,66 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Color ramp of the halo, from its center to the outside
+ * This class does not depend on Android, so it can be measured on a plain JVM
+ */
+final class SmartMenuColorRamp {
+	private SmartMenuColorRamp() {
+	}
+
+	/**
+	 * Compute the stepped color ramp of the halo, from the center to the outside
+	 * Each step is a band of uniform color, so two stops are used per step
+	 * @param centerColor Color of the innermost band
+	 * @param outsideColor Color of the outermost band
+	 * @param steps Number of steps, the ramp contains steps + 1 bands
+	 * @param colors Output colors, must hold 2 * (steps + 1) values
+	 * @param positions Output positions between 0 and 1, same size as colors
+	 */
+	static void compute(int centerColor, int outsideColor, int steps, int[] colors, float[] positions) {
+		int bands = steps + 1;
+		for (int i=0; i<bands; i++) {
+			// Band i goes from the outside (i = 0) to the center (i = steps)
+			int color = interpolate(outsideColor, centerColor, (float) i / steps);
+			int stop = 2 * (steps - i);
+			colors[stop] = color;
+			colors[stop + 1] = color;
+			positions[stop] = 1f - (float) (i + 1) / bands;
+			positions[stop + 1] = 1f - (float) i / bands;
+		}
+	}
+
+	/**
+	 * @param from Color at fraction 0
+	 * @param to Color at fraction 1
+	 * @param fraction
+	 * @return The ARGB color interpolated on each component
+	 */
+	static int interpolate(int from, int to, float fraction) {
+		int a = interpolateComponent(from >>> 24, to >>> 24, fraction);
+		int r = interpolateComponent((from >> 16) & 0xff, (to >> 16) & 0xff, fraction);
+		int g = interpolateComponent((from >> 8) & 0xff, (to >> 8) & 0xff, fraction);
+		int b = interpolateComponent(from & 0xff, to & 0xff, fraction);
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+
+	private static int interpolateComponent(int from, int to, float fraction) {
+		return from + Math.round((to - from) * fraction);
+	}
+}
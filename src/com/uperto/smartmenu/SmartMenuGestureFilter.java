@@ -0,0 +1,230 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Cheap geometric checks done on a gesture before asking the gesture library
+ * Taps and scrolls performed on the content cannot open the menu, so they
+ * are rejected here without running the full recognition
+ *
+ * Strokes are given with addStroke() after a call to reset(), then accept()
+ * tells if the gesture must be sent to the library.
+ *
+ * By default only the number of points, the size and the length are checked,
+ * so any gesture of the library can still open the menu. When the library only
+ * contains closed shapes, such as circles, setClosedShapeChecks() also rejects
+ * the open gestures.
+ */
+public class SmartMenuGestureFilter {
+	// Segments shorter than this are ignored to compute the turning angle
+	private static final float MIN_SEGMENT = 1f;
+
+	// Limits of the closed shape checks
+	private static final float CLOSED_MAX_CLOSURE = 0.5f;
+	private static final float CLOSED_MIN_TURNING = (float) Math.PI;
+
+	// Limits, in pixels and radians, the closure and turning checks are disabled by default
+	private float	mMinSize = 20;
+	private float	mMaxSize = Float.MAX_VALUE;
+	private float	mMinLength = 60;
+	private float	mMaxLength = Float.MAX_VALUE;
+	private int		mMinPoints = 8;
+	private float	mMaxClosure = Float.MAX_VALUE;
+	private float	mMinTurning = 0;
+
+	// State of the gesture being checked
+	private float	mLeft, mTop, mRight, mBottom;
+	private float	mLength;
+	private int		mPoints;
+	private float	mFirstX, mFirstY, mLastX, mLastY;
+	private float	mTurning;
+
+	private int		mRejected = 0;
+
+	public SmartMenuGestureFilter() {
+		reset();
+	}
+
+	/**
+	 * Start checking a new gesture
+	 */
+	public void reset() {
+		mLeft = mTop = Float.MAX_VALUE;
+		mRight = mBottom = -Float.MAX_VALUE;
+		mLength = 0;
+		mPoints = 0;
+		mTurning = 0;
+	}
+
+	/**
+	 * Add a stroke of the gesture being checked
+	 * @param points Coordinates of the points of the stroke, as x1, y1, x2, y2...
+	 */
+	public void addStroke(float[] points) {
+		int count = points.length / 2;
+		if (count == 0) {
+			return;
+		}
+
+		// Direction of the previous segment
+		float previousX = 0, previousY = 0;
+		boolean hasPrevious = false;
+
+		for (int i=0; i<count; i++) {
+			float x = points[2 * i];
+			float y = points[2 * i + 1];
+
+			if (x < mLeft) mLeft = x;
+			if (x > mRight) mRight = x;
+			if (y < mTop) mTop = y;
+			if (y > mBottom) mBottom = y;
+
+			if (mPoints == 0) {
+				mFirstX = x;
+				mFirstY = y;
+			}
+			mPoints++;
+
+			if (i > 0) {
+				float dx = x - mLastX;
+				float dy = y - mLastY;
+				float segment = (float) Math.sqrt(dx * dx + dy * dy);
+				if (segment < MIN_SEGMENT) {
+					continue;
+				}
+				mLength += segment;
+
+				if (hasPrevious) {
+					// Signed angle between the two segments
+					float cross = previousX * dy - previousY * dx;
+					float dot = previousX * dx + previousY * dy;
+					mTurning += (float) Math.atan2(cross, dot);
+				}
+				previousX = dx;
+				previousY = dy;
+				hasPrevious = true;
+			}
+			mLastX = x;
+			mLastY = y;
+		}
+	}
+
+	/**
+	 * Check the strokes added since the last reset
+	 * @return true if the gesture may open the menu and must be recognized
+	 */
+	public boolean accept() {
+		boolean accepted = check();
+		if (!accepted) {
+			mRejected++;
+		}
+		return accepted;
+	}
+
+	private boolean check() {
+		if (mPoints < mMinPoints) {
+			return false;
+		}
+
+		float size = Math.max(mRight - mLeft, mBottom - mTop);
+		if (size < mMinSize || size > mMaxSize) {
+			return false;
+		}
+
+		if (mLength < mMinLength || mLength > mMaxLength) {
+			return false;
+		}
+
+		// The end of the gesture must be close to its start, relatively to its size
+		if (mMaxClosure < Float.MAX_VALUE) {
+			float dx = mLastX - mFirstX;
+			float dy = mLastY - mFirstY;
+			float closure = mMaxClosure * size;
+			if (dx * dx + dy * dy > closure * closure) {
+				return false;
+			}
+		}
+
+		// The gesture must turn in one direction, whichever it is
+		return Math.abs(mTurning) >= mMinTurning;
+	}
+
+	/**
+	 * @return the number of gestures rejected by the filter
+	 */
+	public int getRejectedCount() {
+		return mRejected;
+	}
+
+	/**
+	 * @return the total turning angle of the strokes added since the last reset, in radians
+	 */
+	public float getTurningAngle() {
+		return mTurning;
+	}
+
+	/**
+	 * @param minSize minimal size of the bounding box of the gesture, in pixels
+	 * @param maxSize maximal size of the bounding box of the gesture, in pixels
+	 */
+	public void setSizeLimits(float minSize, float maxSize) {
+		this.mMinSize = minSize;
+		this.mMaxSize = maxSize;
+	}
+
+	/**
+	 * @param minLength minimal length of the path of the gesture, in pixels
+	 * @param maxLength maximal length of the path of the gesture, in pixels
+	 */
+	public void setLengthLimits(float minLength, float maxLength) {
+		this.mMinLength = minLength;
+		this.mMaxLength = maxLength;
+	}
+
+	/**
+	 * @param minPoints minimal number of points of the gesture
+	 */
+	public void setMinPoints(int minPoints) {
+		this.mMinPoints = minPoints;
+	}
+
+	/**
+	 * Also reject the gestures which are not closed and do not turn at least
+	 * half a turn in one direction
+	 * Only suitable when all the gestures of the library are closed shapes
+	 * @param enabled false to disable the closure and turning checks, as by default
+	 */
+	public void setClosedShapeChecks(boolean enabled) {
+		this.mMaxClosure = enabled ? CLOSED_MAX_CLOSURE : Float.MAX_VALUE;
+		this.mMinTurning = enabled ? CLOSED_MIN_TURNING : 0;
+	}
+
+	/**
+	 * @param maxClosure maximal distance between the start and the end of the
+	 * gesture, relatively to the size of its bounding box, Float.MAX_VALUE to disable this check
+	 */
+	public void setMaxClosure(float maxClosure) {
+		this.mMaxClosure = maxClosure;
+	}
+
+	/**
+	 * @param minTurning minimal total turning angle of the gesture, in radians, 0 to disable this check
+	 */
+	public void setMinTurning(float minTurning) {
+		this.mMinTurning = minTurning;
+	}
+}
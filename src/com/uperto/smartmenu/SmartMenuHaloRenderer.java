@@ -0,0 +1,116 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+
+/**
+ * Draw the halo displayed under the user's finger
+ * The color ramp is computed once into a radial shader, and each frame
+ * only draws a single circle moved to the finger position.
+ * A flat halo is a plain circle of half the radius, filled with the center
+ * color, which costs a quarter of the pixels and no gradient.
+ */
+class SmartMenuHaloRenderer {
+	private final Paint	mPainter = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final Paint	mFlatPainter = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private boolean		mFlat = false;
+
+	// Parameters used to build the current shader
+	private int		mRadius = -1;
+	private int		mSteps = -1;
+	private int		mCenterColor = 0;
+	private int		mOutsideColor = 0;
+	private boolean	mChanged = true;
+
+	SmartMenuHaloRenderer() {
+		mPainter.setStyle(Paint.Style.FILL);
+		mFlatPainter.setStyle(Paint.Style.FILL);
+	}
+
+	/**
+	 * Update the halo parameters
+	 * The shader is only rebuilt if one of them is different
+	 * @param radius Halo radius
+	 * @param steps Number of steps of the gradient
+	 * @param centerColor Color of the center of the halo
+	 * @param outsideColor Color of the outline border of the halo
+	 */
+	void setParameters(int radius, int steps, int centerColor, int outsideColor) {
+		if (radius != mRadius || steps != mSteps
+				|| centerColor != mCenterColor || outsideColor != mOutsideColor) {
+			mRadius = radius;
+			mSteps = steps;
+			mCenterColor = centerColor;
+			mOutsideColor = outsideColor;
+			mFlatPainter.setColor(centerColor);
+			mChanged = true;
+		}
+	}
+
+	/**
+	 * The shader is kept, so switching back to the shaded halo does not rebuild it
+	 * @param flat true to draw a flat halo
+	 */
+	void setFlat(boolean flat) {
+		mFlat = flat;
+	}
+
+	/**
+	 * @return the halo radius currently used
+	 */
+	int getRadius() {
+		return mFlat ? mRadius / 2 : mRadius;
+	}
+
+	/**
+	 * Draw the halo centered on the given position
+	 * @param canvas
+	 * @param x
+	 * @param y
+	 */
+	void draw(Canvas canvas, float x, float y) {
+		if (mRadius <= 0) {
+			return;
+		}
+		if (mFlat) {
+			canvas.drawCircle(x, y, mRadius / 2, mFlatPainter);
+			return;
+		}
+		if (mChanged) {
+			buildShader();
+		}
+
+		canvas.save();
+		canvas.translate(x, y);
+		canvas.drawCircle(0, 0, mRadius, mPainter);
+		canvas.restore();
+	}
+
+	private void buildShader() {
+		int steps = Math.max(1, mSteps);
+		int[] colors = new int[2 * (steps + 1)];
+		float[] positions = new float[colors.length];
+		SmartMenuColorRamp.compute(mCenterColor, mOutsideColor, steps, colors, positions);
+
+		mPainter.setShader(new RadialGradient(0, 0, mRadius, colors, positions, Shader.TileMode.CLAMP));
+		mChanged = false;
+	}
+}
@@ -0,0 +1,150 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Find which menu item is under a touch point
+ * Items are laid out on a ring around the center, one per 45 degrees sector,
+ * so the sector is found from the angle of the point, and the hit is confirmed
+ * with a single distance test against the item of this sector
+ */
+class SmartMenuHitIndex {
+	// Number of positions around the center, starting at the top and going clockwise
+	static final int SLOTS = 8;
+
+	private static final double SLOT_ANGLE = 2 * Math.PI / SLOTS;
+
+	private float	mCenterX, mCenterY;
+	private float	mRingRadius;
+	private float	mItemRadius;
+	private float	mMinDistance2, mMaxDistance2;
+	private float	mItemRadius2;
+
+	private final int[]		mSlotItems = new int[SLOTS];
+	private final float[]	mSlotX = new float[SLOTS];
+	private final float[]	mSlotY = new float[SLOTS];
+
+	SmartMenuHitIndex() {
+		clear();
+	}
+
+	/**
+	 * Remove all the items from the index
+	 */
+	void clear() {
+		for (int i=0; i<SLOTS; i++) {
+			mSlotItems[i] = -1;
+		}
+		mItemRadius = mItemRadius2 = 0;
+		mMinDistance2 = mMaxDistance2 = 0;
+	}
+
+	/**
+	 * Build the index from the menu geometry
+	 * @param centerX Center of the menu
+	 * @param centerY Center of the menu
+	 * @param ringRadius Distance between the center of the menu and the center of the items
+	 * @param itemRadius Radius of the items circles
+	 * @param itemCount Number of items, only the first 8 are indexed
+	 */
+	void build(float centerX, float centerY, float ringRadius, float itemRadius, int itemCount) {
+		clear();
+		mCenterX = centerX;
+		mCenterY = centerY;
+		mRingRadius = ringRadius;
+		mItemRadius = itemRadius;
+		mItemRadius2 = itemRadius * itemRadius;
+
+		float min = Math.max(0, ringRadius - itemRadius);
+		float max = ringRadius + itemRadius;
+		mMinDistance2 = min * min;
+		mMaxDistance2 = max * max;
+
+		int count = Math.min(itemCount, SLOTS);
+		for (int i=0; i<count; i++) {
+			int slot = getSlot(i, itemCount);
+			mSlotItems[slot] = i;
+			mSlotX[slot] = centerX + (float) (Math.sin(slot * SLOT_ANGLE) * ringRadius);
+			mSlotY[slot] = centerY - (float) (Math.cos(slot * SLOT_ANGLE) * ringRadius);
+		}
+	}
+
+	/**
+	 * @param index Index of the item
+	 * @param itemCount Number of items in the menu
+	 * @return The position around the center used by the item
+	 */
+	static int getSlot(int index, int itemCount) {
+		// With 4 items or less, use positions 0, 2, 4, 6
+		return (itemCount <= SLOTS / 2) ? index * 2 : index;
+	}
+
+	/**
+	 * @param x
+	 * @param y
+	 * @return The index of the item under the point, or -1
+	 */
+	int hitTest(float x, float y) {
+		if (mItemRadius <= 0) {
+			return -1;
+		}
+
+		float dx = x - mCenterX;
+		float dy = y - mCenterY;
+		float distance2 = dx * dx + dy * dy;
+		// Outside of the ring of items
+		if (distance2 < mMinDistance2 || distance2 > mMaxDistance2) {
+			return -1;
+		}
+
+		// Angle measured clockwise from the top, as the slots are
+		int slot = (int) Math.round(Math.atan2(dx, -dy) / SLOT_ANGLE);
+		slot = (slot + SLOTS) % SLOTS;
+		int item = mSlotItems[slot];
+		if (item < 0) {
+			return -1;
+		}
+
+		float ix = x - mSlotX[slot];
+		float iy = y - mSlotY[slot];
+		return (ix * ix + iy * iy <= mItemRadius2) ? item : -1;
+	}
+
+	/**
+	 * Find the item of the sector containing the point, however far it is
+	 * @param x
+	 * @param y
+	 * @return The index of the item in the direction of the point, or -1
+	 */
+	int sectorTest(float x, float y) {
+		float dx = x - mCenterX;
+		float dy = y - mCenterY;
+		if (mItemRadius <= 0 || (dx == 0 && dy == 0)) {
+			return -1;
+		}
+		int slot = (int) Math.round(Math.atan2(dx, -dy) / SLOT_ANGLE);
+		slot = (slot + SLOTS) % SLOTS;
+		return mSlotItems[slot];
+	}
+
+	/**
+	 * @return Distance between the center of the menu and the center of the items
+	 */
+	float getRingRadius() {
+		return mRingRadius;
+	}
+}
@@ -0,0 +1,235 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.XmlResourceParser;
+import android.view.InflateException;
+
+/**
+ * Fill a SmartMenuOverlayView from a menu declared in an XML resource
+ *
+ * The menu uses the same syntax as the Android menus:
+ *
+ *     <menu xmlns:android="http://schemas.android.com/apk/res/android">
+ *         <item android:id="@+id/action" android:title="@string/action" android:icon="@drawable/action" />
+ *         <item android:title="More">
+ *             <menu>
+ *                 <item ... />
+ *             </menu>
+ *         </item>
+ *     </menu>
+ *
+ * Items containing other items open a submenu. As an extension, the items
+ * of a submenu may also be placed directly in their parent item, without
+ * the <menu> element. The selected actions are given by their id to a
+ * single listener.
+ *
+ * Parsed menus are kept for the whole process, so inflating the same menu
+ * again does not read the XML. The icons are only prepared when the items
+ * are displayed for the first time.
+ */
+public class SmartMenuInflater {
+	private static final String ANDROID_NS = "http://schemas.android.com/apk/res/android";
+	private static final String TAG_ITEM = "item";
+
+	// Parsed menus, by XML resource identifier
+	private static final HashMap<Integer, Entry[]>	sMenus = new HashMap<Integer, Entry[]>();
+
+	/**
+	 * Receive the actions selected in an inflated menu
+	 */
+	public interface OnMenuActionListener {
+		/**
+		 * @param actionId The android:id of the selected item
+		 * @return true if the menu must be closed, false otherwise
+		 */
+		boolean onMenuAction(int actionId);
+	}
+
+	/**
+	 * Item of a parsed menu, never modified once parsed
+	 */
+	private static final class Entry {
+		final int		mId;
+		final int		mTitleId;
+		final String	mTitle;
+		final int		mIconId;
+		Entry[]			mChildren;
+
+		Entry(XmlResourceParser parser) {
+			mId = parser.getAttributeResourceValue(ANDROID_NS, "id", 0);
+			mTitleId = parser.getAttributeResourceValue(ANDROID_NS, "title", 0);
+			mTitle = (mTitleId == 0) ? parser.getAttributeValue(ANDROID_NS, "title") : null;
+			mIconId = parser.getAttributeResourceValue(ANDROID_NS, "icon", 0);
+		}
+	}
+
+	private final Resources	mResources;
+
+	/**
+	 * @param context
+	 */
+	public SmartMenuInflater(Context context) {
+		this.mResources = context.getResources();
+	}
+
+	/**
+	 * Add the items of a menu resource to a menu
+	 * @param menuRes Identifier of the XML resource
+	 * @param menu Menu receiving the items
+	 * @param listener Listener receiving the selected actions
+	 * @throws InflateException if the resource cannot be parsed
+	 */
+	public void inflate(int menuRes, SmartMenuOverlayView menu, OnMenuActionListener listener) {
+		Entry[] entries = getMenu(menuRes);
+
+		// The menu is laid out only once
+		menu.beginItemsUpdate();
+		try {
+			for (int i=0; i<entries.length; i++) {
+				menu.addMenuItem(createItem(entries[i], listener));
+			}
+		} finally {
+			menu.endItemsUpdate();
+		}
+	}
+
+	/**
+	 * @param menuRes
+	 * @return The parsed menu, from the cache if it was already parsed
+	 */
+	private Entry[] getMenu(int menuRes) {
+		synchronized (sMenus) {
+			Entry[] entries = sMenus.get(menuRes);
+			if (entries == null) {
+				entries = parse(menuRes);
+				sMenus.put(menuRes, entries);
+			}
+			return entries;
+		}
+	}
+
+	private Entry[] parse(int menuRes) {
+		XmlResourceParser parser = mResources.getXml(menuRes);
+		try {
+			// Go to the root tag
+			int type;
+			while ((type = parser.next()) != XmlPullParser.START_TAG
+					&& type != XmlPullParser.END_DOCUMENT) {
+			}
+			if (type != XmlPullParser.START_TAG) {
+				throw new InflateException("No menu found in the resource " + menuRes);
+			}
+			return readItems(parser);
+		} catch (XmlPullParserException e) {
+			throw new InflateException("Error parsing the menu " + menuRes, e);
+		} catch (IOException e) {
+			throw new InflateException("Error reading the menu " + menuRes, e);
+		} finally {
+			parser.close();
+		}
+	}
+
+	/**
+	 * Read the items contained in the current tag, until its end tag
+	 * @param parser
+	 * @return The items
+	 */
+	private static Entry[] readItems(XmlResourceParser parser) throws XmlPullParserException, IOException {
+		ArrayList<Entry> entries = new ArrayList<Entry>();
+		int depth = parser.getDepth();
+		int type;
+		while ((type = parser.next()) != XmlPullParser.END_DOCUMENT
+				&& (type != XmlPullParser.END_TAG || parser.getDepth() > depth)) {
+			if (type == XmlPullParser.START_TAG && TAG_ITEM.equals(parser.getName())) {
+				Entry entry = new Entry(parser);
+				entry.mChildren = readItems(parser);
+				entries.add(entry);
+			}
+		}
+		return entries.toArray(new Entry[entries.size()]);
+	}
+
+	/**
+	 * @param entry
+	 * @param listener
+	 * @return A new item for the entry, its icon is not prepared yet
+	 */
+	private SmartMenuOverlayView.SmartMenuItem createItem(Entry entry, OnMenuActionListener listener) {
+		String title = (entry.mTitleId != 0) ? mResources.getString(entry.mTitleId) : entry.mTitle;
+		ActionItem item = new ActionItem(title, entry.mId, listener);
+		if (entry.mIconId != 0) {
+			item.setIconLater(mResources, entry.mIconId);
+		}
+		if (entry.mChildren.length > 0) {
+			item.setSubMenuProvider(new EntriesProvider(entry.mChildren, listener));
+		}
+		return item;
+	}
+
+	/**
+	 * Item dispatching its action to the listener
+	 */
+	private static class ActionItem extends SmartMenuOverlayView.SmartMenuItem {
+		private final int						mActionId;
+		private final OnMenuActionListener	mListener;
+
+		ActionItem(String text, int actionId, OnMenuActionListener listener) {
+			super(text);
+			this.mActionId = actionId;
+			this.mListener = listener;
+		}
+
+		@Override
+		public boolean onItemSelected() {
+			return (mListener != null) ? mListener.onMenuAction(mActionId) : true;
+		}
+	}
+
+	/**
+	 * Create the items of a submenu from the parsed entries
+	 */
+	private class EntriesProvider implements SmartMenuOverlayView.SubMenuProvider {
+		private final Entry[]				mEntries;
+		private final OnMenuActionListener	mListener;
+
+		EntriesProvider(Entry[] entries, OnMenuActionListener listener) {
+			this.mEntries = entries;
+			this.mListener = listener;
+		}
+
+		@Override
+		public List<SmartMenuOverlayView.SmartMenuItem> createSubMenu(SmartMenuOverlayView.SmartMenuItem parent) {
+			SmartMenuOverlayView.SmartMenuItem[] items = new SmartMenuOverlayView.SmartMenuItem[mEntries.length];
+			for (int i=0; i<mEntries.length; i++) {
+				items[i] = createItem(mEntries[i], mListener);
+			}
+			return Arrays.asList(items);
+		}
+	}
+}
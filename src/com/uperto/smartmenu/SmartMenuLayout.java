@@ -0,0 +1,172 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Geometry of a circle menu, computed from the size of the view and the
+ * number of items
+ * A layout never changes once created, a new one is computed when the size
+ * or the number of items change.
+ */
+public final class SmartMenuLayout {
+	// Inputs
+	public final int width;
+	public final int height;
+	public final int itemCount;
+
+	// Menu geometry
+	public final int centerX, centerY;
+	public final int centerRadius;
+	public final int branchesLength;
+	public final int branchesRadius;
+
+	// Label geometry
+	public final int labelMargin;
+	public final int labelHeight;
+	public final int labelWidth;
+	public final int labelFont;
+
+	// Number of items actually displayed, no more than 8
+	public final int branchCount;
+
+	// Branches geometry, per displayed item, must not be modified:
+	// start and end of the fully extended branches as x1, y1, x2, y2...
+	final float[] branchLines;
+	// direction of the branches as dx, dy... unit vectors
+	final float[] branchDirections;
+	// center of the items circles as x, y...
+	final float[] iconCenters;
+
+	private SmartMenuLayout(int width, int height, int itemCount, int branchesRadius) {
+		this.width = width;
+		this.height = height;
+		this.itemCount = itemCount;
+		this.branchesRadius = branchesRadius;
+
+		if (height > 400) {
+			labelHeight = 40;
+			labelMargin = 10;
+			labelFont = 30;
+		} else {
+			labelHeight = 20;
+			labelMargin = 5;
+			labelFont = 15;
+		}
+
+		if (width > height) {
+			// Landscape
+			centerRadius = height / 4 - branchesRadius - 5;
+			labelWidth = width / 2 - centerRadius * 2 - branchesRadius * 2 - labelMargin;
+		} else {
+			// Portrait
+			centerRadius = width / 4 - branchesRadius - 5;
+			labelWidth = width - 2 * labelMargin;
+		}
+		branchesLength = centerRadius;
+
+		centerX = width / 2;
+		centerY = height / 2;
+
+		branchCount = Math.min(itemCount, SmartMenuHitIndex.SLOTS);
+		branchLines = new float[4 * branchCount];
+		branchDirections = new float[2 * branchCount];
+		iconCenters = new float[2 * branchCount];
+		int ring = getRingRadius();
+		for (int i=0; i<branchCount; i++) {
+			// Positions start at the top and go clockwise
+			double angle = SmartMenuHitIndex.getSlot(i, itemCount) * 2 * Math.PI / SmartMenuHitIndex.SLOTS;
+			float dx = (float) Math.sin(angle);
+			float dy = (float) -Math.cos(angle);
+			branchDirections[2 * i] = dx;
+			branchDirections[2 * i + 1] = dy;
+
+			float x1 = centerX + dx * centerRadius;
+			float y1 = centerY + dy * centerRadius;
+			branchLines[4 * i] = x1;
+			branchLines[4 * i + 1] = y1;
+			branchLines[4 * i + 2] = x1 + dx * branchesLength;
+			branchLines[4 * i + 3] = y1 + dy * branchesLength;
+
+			iconCenters[2 * i] = centerX + dx * ring;
+			iconCenters[2 * i + 1] = centerY + dy * ring;
+		}
+	}
+
+	/**
+	 * @param width Width of the view
+	 * @param height Height of the view
+	 * @param itemCount Number of items in the menu
+	 * @param branchesRadius Radius of the items circles
+	 * @return A new layout
+	 */
+	public static SmartMenuLayout compute(int width, int height, int itemCount, int branchesRadius) {
+		return new SmartMenuLayout(width, height, itemCount, branchesRadius);
+	}
+
+	/**
+	 * @param previous A previously computed layout, or null
+	 * @param width Width of the view
+	 * @param height Height of the view
+	 * @param itemCount Number of items in the menu
+	 * @param branchesRadius Radius of the items circles
+	 * @return The previous layout if it was computed for the same inputs, a new one otherwise
+	 */
+	public static SmartMenuLayout obtain(SmartMenuLayout previous, int width, int height, int itemCount, int branchesRadius) {
+		if (previous != null && previous.matches(width, height, itemCount, branchesRadius)) {
+			return previous;
+		}
+		return compute(width, height, itemCount, branchesRadius);
+	}
+
+	/**
+	 * @return true if this layout was computed from these inputs
+	 */
+	public boolean matches(int width, int height, int itemCount, int branchesRadius) {
+		return this.width == width && this.height == height
+				&& this.itemCount == itemCount && this.branchesRadius == branchesRadius;
+	}
+
+	/**
+	 * @return Distance between the center of the menu and the center of the items
+	 */
+	public int getRingRadius() {
+		return centerRadius + branchesLength + branchesRadius;
+	}
+
+	/**
+	 * @param index Index of a displayed item
+	 * @return The X coordinate of the center of the item circle
+	 */
+	public float getIconX(int index) {
+		return iconCenters[2 * index];
+	}
+
+	/**
+	 * @param index Index of a displayed item
+	 * @return The Y coordinate of the center of the item circle
+	 */
+	public float getIconY(int index) {
+		return iconCenters[2 * index + 1];
+	}
+
+	/**
+	 * @return Distance between the center of the menu and the farthest point of the items
+	 */
+	public int getExtent() {
+		return centerRadius + branchesLength + 2 * branchesRadius;
+	}
+}
@@ -0,0 +1,228 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Performance measures of a menu
+ * Attach a SmartMenuMetricsListener to SmartMenuOverlayView.setMetricsListener()
+ * to receive each measure, or attach an instance of this class to keep
+ * counters and histograms of all the measures.
+ *
+ * Durations are in microseconds, the other values are counts.
+ * Allocations are only counted between Debug.startAllocCounting() and
+ * Debug.stopAllocCounting().
+ *
+ * A budget can be set for each measure, checkBudgets() then fails if a
+ * measure went over it, so that a test or a debug build can catch a
+ * regression of the draw path.
+ */
+public class SmartMenuMetrics implements SmartMenuMetricsListener {
+	// Time spent to draw a frame of the menu
+	public static final int DRAW_TIME = 0;
+	// Interval between two animation frames, only reported when a frame is late
+	public static final int LATE_FRAME = 1;
+	// Time from the end of the opening gesture to the first fully drawn menu
+	public static final int OPEN_LATENCY = 2;
+	// Time from a touch event to the frame displaying the touched item label
+	public static final int HIGHLIGHT_LATENCY = 3;
+	// Time spent in GestureLibrary.recognize()
+	public static final int RECOGNITION_TIME = 4;
+	// Time from the icon request of an item to its icon being ready
+	public static final int ICON_PREPARATION_TIME = 5;
+	// Time spent to draw a frame once the animation has ended,
+	// its count is the number of frames drawn after the menu settled
+	public static final int SETTLED_FRAME = 6;
+	// Number of objects allocated to draw a frame
+	public static final int FRAME_ALLOCATIONS = 7;
+	// Number of objects allocated to handle a touch event
+	public static final int TOUCH_ALLOCATIONS = 8;
+	// Number of redraws requested by a touch event
+	public static final int TOUCH_REDRAWS = 9;
+
+	// Number of measures
+	public static final int METRIC_COUNT = 10;
+
+	private static final String[] NAMES = {
+		"DRAW_TIME", "LATE_FRAME", "OPEN_LATENCY", "HIGHLIGHT_LATENCY",
+		"RECOGNITION_TIME", "ICON_PREPARATION_TIME", "SETTLED_FRAME",
+		"FRAME_ALLOCATIONS", "TOUCH_ALLOCATIONS", "TOUCH_REDRAWS"
+	};
+
+	// Animation frames spaced by more than this are reported as late
+	public static final long LATE_FRAME_THRESHOLD = 25000;
+
+	// Bucket i of the histograms counts the values below 2^i microseconds,
+	// the last one counts all the larger values
+	public static final int BUCKET_COUNT = 25;
+
+	private final long[]	mCounts = new long[METRIC_COUNT];
+	private final long[]	mSums = new long[METRIC_COUNT];
+	private final long[]	mMaximums = new long[METRIC_COUNT];
+	private final int[][]	mHistograms = new int[METRIC_COUNT][BUCKET_COUNT];
+
+	// Maximal value of each measure, or -1 if not checked
+	private final long[]	mBudgets = new long[METRIC_COUNT];
+	private final long[]	mOverruns = new long[METRIC_COUNT];
+
+	public SmartMenuMetrics() {
+		for (int i=0; i<METRIC_COUNT; i++) {
+			mBudgets[i] = -1;
+		}
+	}
+
+	@Override
+	public synchronized void onMetric(int metric, long value) {
+		if (metric < 0 || metric >= METRIC_COUNT) {
+			return;
+		}
+		if (value < 0) {
+			value = 0;
+		}
+		mCounts[metric]++;
+		mSums[metric] += value;
+		if (value > mMaximums[metric]) {
+			mMaximums[metric] = value;
+		}
+		mHistograms[metric][getBucket(value)]++;
+		if (mBudgets[metric] >= 0 && value > mBudgets[metric]) {
+			mOverruns[metric]++;
+		}
+	}
+
+	/**
+	 * @param value
+	 * @return The index of the histogram bucket of the value
+	 */
+	static int getBucket(long value) {
+		int bucket = 64 - Long.numberOfLeadingZeros(value);
+		return Math.min(bucket, BUCKET_COUNT - 1);
+	}
+
+	/**
+	 * @param metric
+	 * @return The number of measures received
+	 */
+	public synchronized long getCount(int metric) {
+		return mCounts[metric];
+	}
+
+	/**
+	 * @param metric
+	 * @return The average of the measures, or 0 if none was received
+	 */
+	public synchronized long getAverage(int metric) {
+		return (mCounts[metric] > 0) ? mSums[metric] / mCounts[metric] : 0;
+	}
+
+	/**
+	 * @param metric
+	 * @return The largest measure received
+	 */
+	public synchronized long getMaximum(int metric) {
+		return mMaximums[metric];
+	}
+
+	/**
+	 * Estimate a percentile from the histogram
+	 * @param metric
+	 * @param percent Between 0 and 100
+	 * @return The upper bound of the bucket containing the percentile, or 0 if no measure was received
+	 */
+	public synchronized long getPercentile(int metric, float percent) {
+		long count = mCounts[metric];
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(count * percent / 100);
+		long seen = 0;
+		int[] histogram = mHistograms[metric];
+		for (int i=0; i<BUCKET_COUNT - 1; i++) {
+			seen += histogram[i];
+			if (seen >= rank) {
+				return Math.min(1L << i, mMaximums[metric]);
+			}
+		}
+		return mMaximums[metric];
+	}
+
+	/**
+	 * @param metric
+	 * @return A copy of the histogram of the measures, see BUCKET_COUNT
+	 */
+	public synchronized int[] getHistogram(int metric) {
+		return mHistograms[metric].clone();
+	}
+
+	/**
+	 * @param metric
+	 * @param budget The maximal value accepted for the measure, or -1 to accept any value
+	 */
+	public synchronized void setBudget(int metric, long budget) {
+		mBudgets[metric] = budget;
+	}
+
+	/**
+	 * @param metric
+	 * @return The maximal value accepted for the measure, or -1
+	 */
+	public synchronized long getBudget(int metric) {
+		return mBudgets[metric];
+	}
+
+	/**
+	 * @param metric
+	 * @return The number of measures received over the budget
+	 */
+	public synchronized long getOverrunCount(int metric) {
+		return mOverruns[metric];
+	}
+
+	/**
+	 * @throws IllegalStateException if a measure went over its budget since the last reset
+	 */
+	public synchronized void checkBudgets() {
+		StringBuilder failures = null;
+		for (int i=0; i<METRIC_COUNT; i++) {
+			if (mOverruns[i] > 0) {
+				if (failures == null) {
+					failures = new StringBuilder("Over budget:");
+				}
+				failures.append(' ').append(NAMES[i]).append(" (").append(mOverruns[i])
+						.append(" times, max ").append(mMaximums[i])
+						.append(" for ").append(mBudgets[i]).append(')');
+			}
+		}
+		if (failures != null) {
+			throw new IllegalStateException(failures.toString());
+		}
+	}
+
+	/**
+	 * Forget all the measures received, the budgets are kept
+	 */
+	public synchronized void reset() {
+		for (int i=0; i<METRIC_COUNT; i++) {
+			mCounts[i] = 0;
+			mSums[i] = 0;
+			mMaximums[i] = 0;
+			mOverruns[i] = 0;
+			for (int j=0; j<BUCKET_COUNT; j++) {
+				mHistograms[i][j] = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Receive the performance measures of a menu
+ * Measures of the drawing may be reported on the render thread
+ */
+public interface SmartMenuMetricsListener {
+	/**
+	 * @param metric One of the SmartMenuMetrics constants
+	 * @param value The measured value, its unit depends on the metric: microseconds
+	 * for the durations, a count for FRAME_ALLOCATIONS, TOUCH_ALLOCATIONS and
+	 * TOUCH_REDRAWS, see the constants of SmartMenuMetrics
+	 */
+	void onMetric(int metric, long value);
+}
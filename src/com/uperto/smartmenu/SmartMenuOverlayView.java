@@ -16,48 +16,73 @@
 
 package com.uperto.smartmenu;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Vector;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.gesture.Gesture;
 import android.gesture.GestureLibrary;
 import android.gesture.GestureOverlayView;
+import android.gesture.GestureStroke;
 import android.gesture.Prediction;
+import android.gesture.GestureOverlayView.OnGestureListener;
 import android.gesture.GestureOverlayView.OnGesturePerformedListener;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapShader;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.PorterDuff;
+import android.graphics.Rect;
 import android.graphics.RectF;
-import android.graphics.Region;
+import android.graphics.Shader;
+import android.os.BatteryManager;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.text.TextPaint;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.animation.AnimationUtils;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
 
-public class SmartMenuOverlayView extends GestureOverlayView implements OnGesturePerformedListener {
-	// These two values will be modified according to the layout size...
-	protected static int sCenterRadius = 32;
-	protected static int sBranchesLength = 24;
-	// ...but not this one
+public class SmartMenuOverlayView extends GestureOverlayView implements OnGesturePerformedListener, OnGestureListener {
+	// The menu geometry is computed according to the layout size, but not this one
 	protected static int sBranchesRadius = 24;
 	
-	// Edit these to change the drawing speed
-	protected static int sCircleSpeed = 30;
-	protected static int sLineSpeed = 10;
+	// Number of resolved submenus kept by each menu
+	protected static int sSubMenuCacheSize = 8;
+	
+	// Opening animation parameters
+	protected long			mAnimationDuration = 1000;
+	protected Interpolator	mAnimationInterpolator = new LinearInterpolator();
 	
-	// These values will be modified according to the layout size and orientation
-	protected static int sLabelMargin = 10;
-	protected static int sLabelHeight = 50;
-	protected static int sLabelWidth = 200;
-	protected static int sLabelFont = 30;
-
 	// Halo parameters
 	protected boolean mDisplayHalo = true;
 	
+	// Keep the fully drawn menu in an offscreen bitmap
+	protected boolean mUseStaticLayer = true;
+	
 
 	protected int mHaloRadius = 30;
 	protected int mHaloGradient = 15;
@@ -65,13 +90,35 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	protected int mHaloCenterColor = Color.argb(100, 128, 128, 128);
 	protected int mHaloOutsideColor = Color.argb(10, 255, 255, 255);
 	
-	// Make these static to compute them only once
-	protected static final double RAD_45 = Math.PI/4;
-	protected static final double COS_45 = Math.cos(RAD_45);
-	protected static final double SIN_45 = Math.sin(RAD_45);
+	// Gestures are recognized in background, on a thread shared by all the menus
+	private static ExecutorService	sRecognitionExecutor;
 	
 	private SmartMenuCircleView	mCircleView;
+	// Surface drawn by a dedicated thread, or null to draw the menu on the main thread
+	private SmartMenuRenderSurface	mRenderSurface = null;
 	private GestureLibrary		mLibrary;
+	private Handler				mHandler;
+	
+	// Identify the current gesture, results of older gestures are dropped
+	private int					mGestureId = 0;
+	private Future<?>			mPendingRecognition = null;
+	private long				mLastRecognitionTime = -1;
+	private SmartMenuGestureFilter	mGestureFilter = new SmartMenuGestureFilter();
+	
+	// Open the menu as soon as a circle is drawn, without waiting for the end of the gesture
+	private boolean					mStreamingDetection = false;
+	private SmartMenuCircleDetector	mCircleDetector = new SmartMenuCircleDetector();
+	
+	// Lowers the rendering quality when frames are slow or the battery is low, or null
+	private volatile SmartMenuQualityGovernor	mQualityGovernor = new SmartMenuQualityGovernor();
+	private BroadcastReceiver		mBatteryReceiver = null;
+	// Battery percentage at which the system sends ACTION_BATTERY_LOW on most devices
+	private static final int		LOW_BATTERY_LEVEL = 15;
+	
+	// Performance measures are only taken when a listener is attached
+	private volatile SmartMenuMetricsListener	mMetricsListener = null;
+	// End of the gesture opening the menu, in nanoseconds, or -1
+	private long					mGestureEndTime = -1;
 	
 	/**
 	 * @param context
@@ -88,6 +135,10 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	public SmartMenuOverlayView(Context context, AttributeSet attributes) {
 		super(context, attributes);
 		init(context);
+		
+		TypedArray a = context.obtainStyledAttributes(attributes, R.styleable.SmartMenuOverlayView);
+		setRenderThreadEnabled(a.getBoolean(R.styleable.SmartMenuOverlayView_renderThread, false));
+		a.recycle();
 	}
 	
 	/**
@@ -99,7 +150,16 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 		mCircleView.setVisibility(INVISIBLE);
 		addView(mCircleView);
 		
+		mHandler = new Handler();
 		addOnGesturePerformedListener(this);
+		addOnGestureListener(this);
+	}
+	
+	private static synchronized ExecutorService getRecognitionExecutor() {
+		if (sRecognitionExecutor == null) {
+			sRecognitionExecutor = Executors.newSingleThreadExecutor();
+		}
+		return sRecognitionExecutor;
 	}
 	
 	/**
@@ -112,13 +172,169 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 
 	/**
 	 * Define the gesture library used for the menu opening
-	 * Any gesture contained in this library will open the menu
+	 * Any gesture contained in this library will open the menu, unless the
+	 * gesture filter rejects it first, see SmartMenuGestureFilter
 	 * @param library
 	 */
 	public void setGestureLibrary(GestureLibrary library) {
 		this.mLibrary = library;
 	}
 	
+	/**
+	 * @return The filter used to reject gestures before the recognition, or null
+	 */
+	public SmartMenuGestureFilter getGestureFilter() {
+		return mGestureFilter;
+	}
+
+	/**
+	 * Define the filter used to reject gestures which cannot open the menu,
+	 * before asking the gesture library
+	 * @param filter A gesture filter, or null to send all the gestures to the library
+	 */
+	public void setGestureFilter(SmartMenuGestureFilter filter) {
+		this.mGestureFilter = filter;
+	}
+	
+	/**
+	 * @return true if the menu opens as soon as a circle is drawn
+	 */
+	public boolean isStreamingDetectionEnabled() {
+		return mStreamingDetection;
+	}
+
+	/**
+	 * When enabled, the points of the gesture are checked while it is
+	 * performed, and the menu is opened as soon as a circle is closed,
+	 * without waiting for the user to lift the finger.
+	 * The gesture library is still used for the other gestures.
+	 * @param enabled
+	 */
+	public void setStreamingDetectionEnabled(boolean enabled) {
+		this.mStreamingDetection = enabled;
+	}
+
+	/**
+	 * @return The current rendering quality, one of the SmartMenuQualityGovernor tiers
+	 */
+	public int getQualityTier() {
+		SmartMenuQualityGovernor governor = mQualityGovernor;
+		return (governor != null) ? governor.getTier() : SmartMenuQualityGovernor.TIER_FULL;
+	}
+
+	/**
+	 * @return The governor choosing the rendering quality, to tune it, or null if disabled
+	 */
+	public SmartMenuQualityGovernor getQualityGovernor() {
+		return mQualityGovernor;
+	}
+
+	/**
+	 * When enabled, the rendering quality is lowered by steps when the
+	 * frames are slow or the battery is low: a smaller flat halo, then no
+	 * anti-aliasing on the branches, then no opening animation.
+	 * It goes back up when the frames are fast again.
+	 * @param enabled false to always draw with the full quality
+	 */
+	public void setQualityGovernorEnabled(boolean enabled) {
+		if (enabled == (mQualityGovernor != null)) {
+			return;
+		}
+		mQualityGovernor = enabled ? new SmartMenuQualityGovernor() : null;
+		mCircleView.qualityChanged();
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		
+		// Save power when the battery is low
+		mBatteryReceiver = new BroadcastReceiver() {
+			@Override
+			public void onReceive(Context context, Intent intent) {
+				SmartMenuQualityGovernor governor = mQualityGovernor;
+				boolean low = Intent.ACTION_BATTERY_LOW.equals(intent.getAction());
+				if (governor != null && governor.setPowerSaving(low)) {
+					mCircleView.qualityChanged();
+				}
+			}
+		};
+		IntentFilter filter = new IntentFilter(Intent.ACTION_BATTERY_LOW);
+		filter.addAction(Intent.ACTION_BATTERY_OKAY);
+		getContext().registerReceiver(mBatteryReceiver, filter);
+		
+		// ACTION_BATTERY_LOW is not sticky, so read the current level from
+		// the last ACTION_BATTERY_CHANGED in case the battery is already low
+		Intent battery = getContext().registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+		SmartMenuQualityGovernor governor = mQualityGovernor;
+		if (battery != null && governor != null && governor.setPowerSaving(isBatteryLow(battery))) {
+			mCircleView.qualityChanged();
+		}
+	}
+	
+	/**
+	 * @param battery An ACTION_BATTERY_CHANGED intent
+	 * @return true if the battery is discharging and at or below LOW_BATTERY_LEVEL
+	 */
+	private static boolean isBatteryLow(Intent battery) {
+		int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+		int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+		boolean plugged = battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+		if (level < 0 || scale <= 0 || plugged) {
+			return false;
+		}
+		return level * 100 <= LOW_BATTERY_LEVEL * scale;
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		if (mBatteryReceiver != null) {
+			getContext().unregisterReceiver(mBatteryReceiver);
+			mBatteryReceiver = null;
+		}
+		super.onDetachedFromWindow();
+	}
+
+	/**
+	 * @return How far in the future the target of the finger is predicted, in milliseconds
+	 */
+	public long getPredictionWindow() {
+		return mCircleView.mPredictor.getWindow();
+	}
+
+	/**
+	 * When the finger moves fast towards an item, the item is highlighted,
+	 * its label displayed and its submenu resolved before the finger reaches it
+	 * @param window How far in the future the target of the finger is predicted,
+	 * in milliseconds, 0 to disable the prediction
+	 */
+	public void setPredictionWindow(long window) {
+		mCircleView.mPredictor.setWindow(window);
+	}
+
+	/**
+	 * @return The listener receiving the performance measures, or null
+	 */
+	public SmartMenuMetricsListener getMetricsListener() {
+		return mMetricsListener;
+	}
+
+	/**
+	 * Define the listener receiving the performance measures of the menu,
+	 * see SmartMenuMetrics. Nothing is measured when no listener is set.
+	 * @param listener A metrics listener, or null
+	 */
+	public void setMetricsListener(SmartMenuMetricsListener listener) {
+		this.mMetricsListener = listener;
+	}
+
+	/**
+	 * @return The detector used when streaming detection is enabled, to tune its thresholds
+	 */
+	public SmartMenuCircleDetector getCircleDetector() {
+		return mCircleDetector;
+	}
+	
 	/**
 	 * Add an item to the menu
 	 * No more than 8 items can be used
@@ -152,6 +368,22 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 		mCircleView.insertMenuItemAt(item, index);
 	}
 	
+	/**
+	 * Start a batch of items modifications
+	 * The menu only sees the items once the matching endItemsUpdate() is called,
+	 * so it is laid out only once. Calls can be nested.
+	 */
+	public void beginItemsUpdate() {
+		mCircleView.beginItemsUpdate();
+	}
+	
+	/**
+	 * End a batch of items modifications started with beginItemsUpdate()
+	 */
+	public void endItemsUpdate() {
+		mCircleView.endItemsUpdate();
+	}
+	
 	/**
 	 * @param item
 	 * @return
@@ -166,7 +398,7 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	 * @param painter
 	 */
 	public void setPainter(Paint painter) {
-		this.mCircleView.mPainter = painter;
+		this.mCircleView.setPainter(painter);
 	}
 	
 	/**
@@ -184,6 +416,58 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 		this.mCircleView.setBackgroundColor(color);
 	}
 
+	/**
+	 * @return true if the fully drawn menu is cached in an offscreen bitmap
+	 */
+	public boolean useStaticLayer() {
+		return mUseStaticLayer;
+	}
+
+	/**
+	 * When enabled, the menu is drawn only once into an offscreen bitmap
+	 * after the opening animation, then only the halo and the label are
+	 * drawn on top of it. This uses some memory while the menu is opened.
+	 * @param useStaticLayer true to cache the fully drawn menu
+	 */
+	public void setUseStaticLayer(boolean useStaticLayer) {
+		this.mUseStaticLayer = useStaticLayer;
+		if (!useStaticLayer) {
+			mCircleView.releaseStaticLayer();
+		}
+	}
+
+	/**
+	 * @return true if the menu is drawn by a dedicated thread
+	 */
+	public boolean isRenderThreadEnabled() {
+		return mRenderSurface != null;
+	}
+
+	/**
+	 * When enabled, the menu, its animation and the halo are drawn on a
+	 * surface by a dedicated thread, so they keep running smoothly while the
+	 * main thread is busy. The main thread still handles the touch events
+	 * and the items selection. Can also be set with the renderThread attribute.
+	 * @param enabled true to draw the menu on a dedicated thread
+	 */
+	public void setRenderThreadEnabled(boolean enabled) {
+		if (enabled == isRenderThreadEnabled()) {
+			return;
+		}
+		
+		if (enabled) {
+			mRenderSurface = new SmartMenuRenderSurface(getContext(), mCircleView);
+			mRenderSurface.setVisibility(mCircleView.getVisibility());
+			mCircleView.setRenderSurface(mRenderSurface);
+			addView(mRenderSurface);
+		} else {
+			// Stops the render thread
+			removeView(mRenderSurface);
+			mRenderSurface = null;
+			mCircleView.setRenderSurface(null);
+		}
+	}
+
 	/**
 	 * @return is the halo enabled
 	 */
@@ -210,6 +494,7 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	 */
 	public void setHaloRadius(int radius) {
 		this.mHaloRadius = radius;
+		mCircleView.invalidateHalo();
 	}
 
 	/**
@@ -226,6 +511,7 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	 */
 	public void setHaloGradient(int gradient) {
 		this.mHaloGradient = gradient;
+		mCircleView.invalidateHalo();
 	}
 
 	/**
@@ -240,6 +526,7 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	 */
 	public void setHaloCenterColor(int color) {
 		this.mHaloCenterColor = color;
+		mCircleView.invalidateHalo();
 	}
 
 	/**
@@ -254,20 +541,56 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	 */
 	public void setHaloOutsideColor(int color) {
 		this.mHaloOutsideColor = color;
+		mCircleView.invalidateHalo();
+	}
+
+	/**
+	 * @return the total duration of the opening animation, in milliseconds
+	 */
+	public long getAnimationDuration() {
+		return mAnimationDuration;
+	}
+
+	/**
+	 * The animation progress is computed from the elapsed time, so
+	 * its duration does not depend on the frame rate
+	 * @param duration the total duration of the opening animation, in milliseconds
+	 */
+	public void setAnimationDuration(long duration) {
+		this.mAnimationDuration = duration;
+	}
+
+	/**
+	 * @return the interpolator applied to the opening animation
+	 */
+	public Interpolator getAnimationInterpolator() {
+		return mAnimationInterpolator;
+	}
+
+	/**
+	 * @param interpolator the interpolator applied to the opening animation
+	 */
+	public void setAnimationInterpolator(Interpolator interpolator) {
+		this.mAnimationInterpolator = interpolator;
 	}
 
 	/**
-	 * @param animate If true, skip the opening animation
+	 * @param animate If false, skip the opening animation
 	 */
 	public void open(boolean animate) {
 		bringChildToFront(mCircleView);
-		mCircleView.reset();
+		mCircleView.reset(mGestureEndTime);
+		mGestureEndTime = -1;
 		mCircleView.setVisibility(VISIBLE);
+		if (mRenderSurface != null) {
+			bringChildToFront(mRenderSurface);
+			mRenderSurface.setVisibility(VISIBLE);
+		}
 		setGestureVisible(false);
 		setEventsInterceptionEnabled(false);
 		
 		// Skip the animation
-		if (!animate) {
+		if (!animate || getQualityTier() >= SmartMenuQualityGovernor.TIER_NO_ANIMATION) {
 			mCircleView.setAnimationEnd();
 		}
 	}
@@ -276,9 +599,63 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	 * Close the circle menu if opened
 	 */
 	public void close() {
+		cancelRecognition();
 		mCircleView.close();
 	}
 	
+	/**
+	 * Keep what is expensive to build again when the activity is recreated
+	 * after a configuration change: the gesture library, the prepared icons
+	 * and whether the menu is opened.
+	 * To be returned from Activity.onRetainNonConfigurationInstance()
+	 * @return The retained state of the menu
+	 */
+	public RetainedState retainState() {
+		ArrayList<SmartMenuIconFactory.IconKey> keys = new ArrayList<SmartMenuIconFactory.IconKey>();
+		ArrayList<Bitmap> icons = new ArrayList<Bitmap>();
+		mCircleView.collectIcons(keys, icons);
+		return new RetainedState(mLibrary, isOpened(), keys, icons);
+	}
+	
+	/**
+	 * Restore the state retained before a configuration change
+	 * Must be called before adding the items, so that their icons are
+	 * found prepared instead of being decoded again.
+	 * @param state The state given by Activity.getLastNonConfigurationInstance(), or null
+	 */
+	public void restoreState(RetainedState state) {
+		if (state == null) {
+			return;
+		}
+		if (mLibrary == null) {
+			mLibrary = state.mLibrary;
+		}
+		state.restoreIcons();
+		if (state.mOpened && !isOpened()) {
+			// The menu is laid out for the new size once measured
+			open(false);
+		}
+	}
+	
+	/**
+	 * @return the time spent in the gesture library to recognize the last gesture,
+	 * in milliseconds, or -1 if no gesture was recognized yet
+	 */
+	public long getLastRecognitionTime() {
+		return mLastRecognitionTime;
+	}
+	
+	/**
+	 * Drop the recognition of the previous gesture, if any
+	 */
+	private void cancelRecognition() {
+		mGestureId++;
+		if (mPendingRecognition != null) {
+			mPendingRecognition.cancel(false);
+			mPendingRecognition = null;
+		}
+	}
+	
 	/**
 	 * @return true if the circle menu is visible
 	 */
@@ -287,34 +664,203 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 	}
 
 	@Override
-	public void onGesturePerformed(GestureOverlayView overlay, Gesture gesture) {
-		ArrayList<Prediction> predictions = mLibrary.recognize(gesture);
+	public void onGesturePerformed(GestureOverlayView overlay, final Gesture gesture) {
+		final GestureLibrary library = mLibrary;
+		if (library == null) {
+			return;
+		}
+		
+		// Don't bother the library with taps and scrolls
+		if (mGestureFilter != null && !filterGesture(gesture)) {
+			return;
+		}
+		final long gestureEndTime = (mMetricsListener != null) ? System.nanoTime() : -1;
 		
-		// We want at least one prediction
-		if (predictions.size() > 0) {
-			Prediction prediction = predictions.get(0);
-			// We want at least some confidence in the result
-			if (prediction.score > 1.0) {
-				open(true);
+		// The recognition can take some time with large libraries, so it is
+		// done in background and the result is only used if no other gesture
+		// was started in the meantime
+		final int gestureId = mGestureId;
+		mPendingRecognition = getRecognitionExecutor().submit(new Runnable() {
+			@Override
+			public void run() {
+				long start = System.nanoTime();
+				ArrayList<Prediction> predictions = library.recognize(gesture);
+				// In microseconds
+				final long time = (System.nanoTime() - start) / 1000;
+				
+				// We want at least one prediction, with some confidence in the result
+				final boolean recognized = predictions.size() > 0 && predictions.get(0).score > 1.0;
+				
+				mHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						mLastRecognitionTime = time / 1000;
+						SmartMenuMetricsListener metrics = mMetricsListener;
+						if (metrics != null) {
+							metrics.onMetric(SmartMenuMetrics.RECOGNITION_TIME, time);
+						}
+						if (gestureId == mGestureId) {
+							mPendingRecognition = null;
+							if (recognized && !isOpened()) {
+								mGestureEndTime = gestureEndTime;
+								open(true);
+							}
+						}
+					}
+				});
 			}
+		});
+	}
+	
+	/**
+	 * @param gesture
+	 * @return true if the gesture passes the filter
+	 */
+	private boolean filterGesture(Gesture gesture) {
+		mGestureFilter.reset();
+		ArrayList<GestureStroke> strokes = gesture.getStrokes();
+		for (int i=0; i<strokes.size(); i++) {
+			mGestureFilter.addStroke(strokes.get(i).points);
+		}
+		return mGestureFilter.accept();
+	}
+	
+	@Override
+	public void onGestureStarted(GestureOverlayView overlay, MotionEvent event) {
+		// A new gesture makes the previous one irrelevant
+		cancelRecognition();
+		
+		if (mStreamingDetection) {
+			mCircleDetector.reset();
+			mCircleDetector.addPoint(event.getX(), event.getY());
+		}
+	}
+	
+	@Override
+	public void onGesture(GestureOverlayView overlay, MotionEvent event) {
+		if (!mStreamingDetection || isOpened()) {
+			return;
+		}
+		
+		boolean detected = false;
+		int history = event.getHistorySize();
+		for (int i=0; i<history; i++) {
+			detected |= mCircleDetector.addPoint(event.getHistoricalX(i), event.getHistoricalY(i));
+		}
+		detected |= mCircleDetector.addPoint(event.getX(), event.getY());
+		
+		if (detected) {
+			// No need to recognize the gesture when it ends
+			cancelGesture();
+			cancelRecognition();
+			mGestureEndTime = (mMetricsListener != null) ? System.nanoTime() : -1;
+			open(true);
 		}
 	}
 	
+	@Override
+	public void onGestureEnded(GestureOverlayView overlay, MotionEvent event) {
+	}
+	
+	@Override
+	public void onGestureCancelled(GestureOverlayView overlay, MotionEvent event) {
+	}
+	
 	protected static class SmartMenuCircleView extends View {
-		private int mCenterX, mCenterY;
 		private int mCurrentAngle = 0;
 		private int mCurrentBranch = 0;
 		private int mCurrentBranchLength = 0;
 		
+		// Start time of the opening animation, or -1 if not started yet
+		private long	mAnimationStart = -1;
+		private boolean	mAnimating = false;
+		
 		protected float		mHaloX = 0;
 		protected float		mHaloY = 0;
 		protected boolean	mDrawHalo = false;
 		
-		private boolean					mComputedValues = false;
+		// Item the finger is moving to, highlighted before it is reached, or -1
+		private int			mPredicted = -1;
+		private final SmartMenuTargetPredictor	mPredictor = new SmartMenuTargetPredictor();
+		
+		// Touch state waiting for the next frame, applied at most once per frame
+		private float		mPendingHaloX, mPendingHaloY;
+		private boolean		mPendingDrawHalo = false;
+		private SmartMenuItem	mPendingLabel = null;
+		private int			mPendingPredicted = -1;
+		private boolean		mTouchPending = false;
+		
+		// Geometry of the menu, null until the view has a size
+		private SmartMenuLayout			mLayout = null;
 		private Paint					mPainter;
+		
+		// Drawing objects are allocated once and reused on every frame,
+		// so that the draw path does not trigger the garbage collector
+		private final RectF				mArcRect = new RectF();
+		private final RectF				mLabelRect = new RectF();
+		private final TextPaint			mTextPainter = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+		private float					mLabelX, mLabelY;
+		private final Paint				mPlaceholderPainter = new Paint(Paint.ANTI_ALIAS_FLAG);
+		private final Paint				mHighlightPainter = new Paint(Paint.ANTI_ALIAS_FLAG);
+		// Outlines of the fully drawn items, drawn at once
+		private final Path				mCirclesPath = new Path();
+		private int						mCirclesPathCount = 0;
+		private final SmartMenuHaloRenderer	mHalo = new SmartMenuHaloRenderer();
+		private final SmartMenuHitIndex		mHitIndex = new SmartMenuHitIndex();
+		// Area to redraw after a touch event
+		private final Rect				mDirtyRect = new Rect();
+		
+		// Offscreen bitmap containing the fully drawn menu, and its position
+		private Bitmap					mStaticLayer = null;
+		private Canvas					mStaticCanvas = null;
+		private boolean					mStaticLayerValid = false;
+		private int						mStaticLayerLeft, mStaticLayerTop;
 		private SmartMenuOverlayView	mParent;
-		private String					mText = null;
-		private Vector<SmartMenuItem>	mItems;
+		
+		// The frame state is shared with the render thread, if any, under this lock
+		private final Object			mFrameLock = new Object();
+		private volatile SmartMenuRenderSurface	mRenderSurface = null;
+		// Item whose label is displayed
+		private SmartMenuItem			mLabel = null;
+		
+		// Pending performance measures, in nanoseconds, or -1
+		private long					mOpenRequestTime = -1;
+		private long					mLastFrameTime = -1;
+		private long					mHighlightEventTime = -1;
+		
+		// Items are edited under a lock, then published as an array which is
+		// never modified, so that drawing and touch handling need no lock
+		private final Object			mItemsLock = new Object();
+		private final ArrayList<SmartMenuItem>	mEditedItems = new ArrayList<SmartMenuItem>();
+		private int						mUpdateDepth = 0;
+		private volatile SmartMenuItem[]	mPublishedItems = new SmartMenuItem[0];
+		// Snapshot of the root items, and items currently displayed,
+		// matching the current layout
+		private SmartMenuItem[]			mRootItems = mPublishedItems;
+		private SmartMenuItem[]			mItems = mPublishedItems;
+		
+		// Opened submenus: the parent items, and the items and layouts of their menus
+		private final ArrayList<SmartMenuItem>		mSubMenuPath = new ArrayList<SmartMenuItem>();
+		private final ArrayList<SmartMenuItem[]>	mSubMenuItems = new ArrayList<SmartMenuItem[]>();
+		private final ArrayList<SmartMenuLayout>	mSubMenuLayouts = new ArrayList<SmartMenuLayout>();
+		// The circle is not animated again when a submenu opens
+		private boolean					mAnimateCircle = true;
+		
+		// Submenus are resolved in background, only used from the UI thread,
+		// stale entries are evicted with the least recently used ones.
+		// Opened submenus do not depend on this cache, see mSubMenuItems
+		private final LinkedHashMap<SmartMenuItem, SmartMenuItem[]>	mSubMenus =
+				new LinkedHashMap<SmartMenuItem, SmartMenuItem[]>(16, 0.75f, true) {
+					private static final long serialVersionUID = 1L;
+					
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<SmartMenuItem, SmartMenuItem[]> eldest) {
+						return size() > sSubMenuCacheSize;
+					}
+				};
+		private final HashSet<SmartMenuItem>	mSubMenuRequests = new HashSet<SmartMenuItem>();
+		// Submenu to open as soon as it is resolved, or null
+		private SmartMenuItem			mPendingSubMenu = null;
 		
 		public SmartMenuCircleView(Context context, SmartMenuOverlayView parent) {
 			super(context);
@@ -333,318 +879,1030 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 			mPainter.setColor(Color.WHITE);
 			mPainter.setStrokeWidth(3);
 			mPainter.setTextAlign(Paint.Align.CENTER);
-			mItems = new Vector<SmartMenuItem>();
+			
+			mTextPainter.setTextAlign(Paint.Align.CENTER);
+			mTextPainter.setColor(Color.WHITE);
+			mPlaceholderPainter.setStyle(Paint.Style.FILL);
+			mPlaceholderPainter.setColor(Color.argb(60, 255, 255, 255));
+			mHighlightPainter.setStyle(Paint.Style.FILL);
+			mHighlightPainter.setColor(Color.argb(90, 255, 255, 255));
+			invalidateHalo();
+		}
+		
+		// Width of the highlight around a predicted item
+		private static final int HIGHLIGHT_MARGIN = 6;
+		
+		protected void setPainter(Paint painter) {
+			synchronized (mFrameLock) {
+				mPainter = painter;
+				mStaticLayerValid = false;
+			}
+			redraw();
+		}
+		
+		/**
+		 * Apply the rendering quality chosen by the governor
+		 * Can be called from any thread
+		 */
+		void qualityChanged() {
+			synchronized (mFrameLock) {
+				invalidateHalo();
+				mStaticLayerValid = false;
+				if (mAnimating && mParent.getQualityTier() >= SmartMenuQualityGovernor.TIER_NO_ANIMATION) {
+					setAnimationEnd();
+				}
+			}
+			postRedraw();
+		}
+		
+		/**
+		 * @param surface Surface drawn by the render thread, or null to draw in this view
+		 */
+		void setRenderSurface(SmartMenuRenderSurface surface) {
+			mRenderSurface = surface;
+			// Drawn from scratch by the new backend
+			releaseStaticLayer();
+			redraw();
+		}
+		
+		/**
+		 * Redraw the whole menu, must be called from the UI thread
+		 */
+		private void redraw() {
+			SmartMenuRenderSurface surface = mRenderSurface;
+			if (surface != null) {
+				surface.requestFrame();
+			} else {
+				invalidate();
+			}
+		}
+		
+		/**
+		 * Redraw the whole menu, can be called from any thread
+		 */
+		private void postRedraw() {
+			SmartMenuRenderSurface surface = mRenderSurface;
+			if (surface != null) {
+				surface.requestFrame();
+			} else {
+				postInvalidate();
+			}
+		}
+		
+		/**
+		 * Must be called when one of the halo parameters is modified,
+		 * the halo shader will be rebuilt on the next frame
+		 */
+		protected void invalidateHalo() {
+			synchronized (mFrameLock) {
+				mHalo.setParameters(mParent.mHaloRadius, mParent.mHaloGradient,
+						mParent.mHaloCenterColor, mParent.mHaloOutsideColor);
+				mHalo.setFlat(mParent.getQualityTier() >= SmartMenuQualityGovernor.TIER_REDUCED_HALO);
+			}
+			if (mDrawHalo) {
+				postRedraw();
+			}
 		}
 		
 		protected void reset() {
-			mCurrentAngle = 0;
-			mCurrentBranch = 0;
-			mCurrentBranchLength = 0;
-			mComputedValues = false;
-			setText(null);
+			reset(-1);
+		}
+		
+		/**
+		 * @param openRequestTime End of the gesture opening the menu, in nanoseconds, or -1
+		 */
+		protected void reset(long openRequestTime) {
+			synchronized (mFrameLock) {
+				mOpenRequestTime = openRequestTime;
+				mLastFrameTime = -1;
+				mHighlightEventTime = -1;
+				syncItems();
+				showRootMenu();
+				mAnimateCircle = true;
+				mCurrentAngle = 0;
+				mCurrentBranch = 0;
+				mCurrentBranchLength = 0;
+				mAnimationStart = -1;
+				mAnimating = true;
+				mStaticLayerValid = false;
+				mTouchPending = false;
+				mLabel = null;
+			}
+			warmIcons();
+			redraw();
 			requestFocus();
 		}
 		
 		protected void close() {
 			setVisibility(INVISIBLE);
+			SmartMenuRenderSurface surface = mRenderSurface;
+			if (surface != null) {
+				surface.setVisibility(INVISIBLE);
+			}
+			releaseStaticLayer();
+			mPendingSubMenu = null;
 			mParent.clear(false);
 			mParent.setGestureVisible(true);
 			mParent.setEventsInterceptionEnabled(true);
 		}
 		
 		protected void setAnimationEnd() {
-			mCurrentAngle = 360;
-			mCurrentBranch = mItems.size();
+			synchronized (mFrameLock) {
+				mCurrentAngle = 360;
+				mCurrentBranch = mItems.length;
+				mCurrentBranchLength = 0;
+				mAnimating = false;
+			}
+		}
+		
+		/**
+		 * Compute the animation state from the time elapsed since the first frame
+		 * The circle and each branch take the same share of the total duration
+		 * If a frame is late, the next one simply jumps further
+		 */
+		private void updateAnimation() {
+			long now = AnimationUtils.currentAnimationTimeMillis();
+			if (mAnimationStart < 0) {
+				mAnimationStart = now;
+			}
+			
+			long duration = mParent.mAnimationDuration;
+			float elapsed = (duration > 0) ? (float) (now - mAnimationStart) / duration : 1f;
+			if (elapsed >= 1f) {
+				setAnimationEnd();
+				return;
+			}
+			
+			float progress = elapsed;
+			if (mParent.mAnimationInterpolator != null) {
+				progress = mParent.mAnimationInterpolator.getInterpolation(elapsed);
+			}
+			
+			int count = Math.min(mItems.length, SmartMenuHitIndex.SLOTS);
+			float step = mAnimateCircle ? progress * (count + 1) : 1f + progress * count;
+			if (step < 1f) {
+				mCurrentAngle = (int) (360 * step);
+				mCurrentBranch = 0;
+				mCurrentBranchLength = 0;
+			} else {
+				mCurrentAngle = 360;
+				mCurrentBranch = Math.min((int) step - 1, count);
+				mCurrentBranchLength = (int) (mLayout.branchesLength * (step - 1 - mCurrentBranch));
+			}
 		}
 		
 		protected void addMenuItem(SmartMenuItem item) {
-			mItems.add(item);
+			synchronized (mItemsLock) {
+				mEditedItems.add(item);
+				item.mOwner = this;
+				publishItems();
+			}
 		}
 		
 		protected SmartMenuItem getMenuItem(int index) {
-			return mItems.get(index);
+			synchronized (mItemsLock) {
+				return mEditedItems.get(index);
+			}
 		}
 		
 		protected boolean deleteMenuItem(SmartMenuItem item) {
-			return mItems.remove(item);
+			synchronized (mItemsLock) {
+				boolean removed = mEditedItems.remove(item);
+				if (removed && item.mOwner == this) {
+					item.mOwner = null;
+				}
+				publishItems();
+				return removed;
+			}
 		}
 		
 		protected void insertMenuItemAt(SmartMenuItem item, int index) {
-			mItems.insertElementAt(item, index);
+			synchronized (mItemsLock) {
+				mEditedItems.add(index, item);
+				item.mOwner = this;
+				publishItems();
+			}
 		}
 		
 		protected int indexOf(SmartMenuItem item) {
-			return mItems.indexOf(item);
+			synchronized (mItemsLock) {
+				return mEditedItems.indexOf(item);
+			}
 		}
 		
-		@Override
-		public boolean onTouchEvent(MotionEvent event) {
-			switch (event.getAction()) {
-			case MotionEvent.ACTION_DOWN:
-			case MotionEvent.ACTION_MOVE:
-				mDrawHalo = true;
-				mHaloX = event.getX();
-				mHaloY = event.getY();
-				
-				boolean isInMenu = false;
-				for (int i=0; i<mItems.size(); i++) {
-					int x = mItems.get(i).getX();
-					int y = mItems.get(i).getY();
-					
-					if (Math.sqrt( (event.getX() - x)*(event.getX() - x) + (event.getY() - y) * (event.getY() - y) ) <= sBranchesRadius) {
-						if (getText() == null || getText().equals(mItems.get(i).getText())) {
-							setText(mItems.get(i).getText());
-							//invalidate();
-						}
-						isInMenu = true;
-					}
+		protected void beginItemsUpdate() {
+			synchronized (mItemsLock) {
+				mUpdateDepth++;
+			}
+		}
+		
+		protected void endItemsUpdate() {
+			synchronized (mItemsLock) {
+				if (mUpdateDepth > 0) {
+					mUpdateDepth--;
 				}
-				if (!isInMenu) {
-					if (getText() != null) {
-						setText(null);
-						//invalidate();
-					}
+				publishItems();
+			}
+		}
+		
+		/**
+		 * Publish a new snapshot of the items, unless an update is in progress
+		 * Can be called from any thread, the UI thread picks it up on the next frame
+		 */
+		private void publishItems() {
+			if (mUpdateDepth == 0) {
+				mPublishedItems = mEditedItems.toArray(new SmartMenuItem[mEditedItems.size()]);
+				postRedraw();
+			}
+		}
+		
+		/**
+		 * Called when the icon of an item is ready
+		 */
+		protected void iconChanged() {
+			synchronized (mFrameLock) {
+				mStaticLayerValid = false;
+			}
+			redraw();
+		}
+		
+		/**
+		 * Use the last published items, and relayout the menu if they changed
+		 * Must be called with the frame lock held
+		 */
+		private void syncItems() {
+			SmartMenuItem[] items = mPublishedItems;
+			if (items != mRootItems) {
+				// Submenus may not exist anymore
+				mRootItems = items;
+				mSubMenuPath.clear();
+				mSubMenuItems.clear();
+				mSubMenuLayouts.clear();
+				mItems = items;
+				updateLayout(true);
+				if (!mAnimating) {
+					// Keep the menu fully drawn
+					setAnimationEnd();
 				}
-				invalidate();
-				break;
-			case MotionEvent.ACTION_UP:
-				mDrawHalo = false;
-				for (int i=0; i<mItems.size(); i++) {
-					int x = mItems.get(i).getX();
-					int y = mItems.get(i).getY();
+				if (getVisibility() == VISIBLE) {
+					// Items added while the menu is opened
+					mParent.mHandler.post(mWarmIcons);
+				}
+			}
+		}
+		
+		/**
+		 * Display the root items again, with their layout if it is still valid
+		 * Must be called with the frame lock held
+		 */
+		private void showRootMenu() {
+			mPendingSubMenu = null;
+			if (!mSubMenuPath.isEmpty()) {
+				mItems = mRootItems;
+				mLayout = mSubMenuLayouts.get(0);
+				mSubMenuPath.clear();
+				mSubMenuItems.clear();
+				mSubMenuLayouts.clear();
+				updateLayout(true);
+			}
+		}
+		
+		/**
+		 * Resolve the submenu of an item in background, if it was not already
+		 * Must be called from the UI thread
+		 * @param item
+		 * @return The items of the submenu if they are already known, null otherwise
+		 */
+		private SmartMenuItem[] requestSubMenu(final SmartMenuItem item) {
+			SmartMenuItem[] children = mSubMenus.get(item);
+			if (children != null || mSubMenuRequests.contains(item)) {
+				return children;
+			}
+			
+			final SubMenuProvider provider = item.getSubMenuProvider();
+			if (provider == null) {
+				return null;
+			}
+			mSubMenuRequests.add(item);
+			SmartMenuIconFactory.execute(new Runnable() {
+				@Override
+				public void run() {
+					// Children created with a drawable identifier start preparing their icon here
+					List<SmartMenuItem> list = provider.createSubMenu(item);
+					final SmartMenuItem[] result = (list != null)
+							? list.toArray(new SmartMenuItem[list.size()]) : new SmartMenuItem[0];
+					
+					mParent.mHandler.post(new Runnable() {
+						@Override
+						public void run() {
+							subMenuResolved(item, result);
+						}
+					});
+				}
+			});
+			return null;
+		}
+		
+		/**
+		 * Get the prepared icons of the root items and of the resolved submenus
+		 * Must be called from the UI thread
+		 * @param keys Output keys of the icons
+		 * @param icons Output icons
+		 */
+		void collectIcons(ArrayList<SmartMenuIconFactory.IconKey> keys, ArrayList<Bitmap> icons) {
+			synchronized (mItemsLock) {
+				for (int i=0; i<mEditedItems.size(); i++) {
+					mEditedItems.get(i).collectIcon(keys, icons);
+				}
+			}
+			for (SmartMenuItem[] children : mSubMenus.values()) {
+				for (int i=0; i<children.length; i++) {
+					children[i].collectIcon(keys, icons);
+				}
+			}
+		}
+		
+		/**
+		 * Called on the UI thread when the submenu of an item is resolved
+		 */
+		private void subMenuResolved(SmartMenuItem item, SmartMenuItem[] children) {
+			mSubMenuRequests.remove(item);
+			for (int i=0; i<children.length; i++) {
+				children[i].mOwner = this;
+			}
+			mSubMenus.put(item, children);
+			
+			if (mPendingSubMenu == item) {
+				mPendingSubMenu = null;
+				if (getVisibility() == VISIBLE && indexOfDisplayed(item) >= 0) {
+					openSubMenu(item, children);
+				}
+			}
+		}
+		
+		private int indexOfDisplayed(SmartMenuItem item) {
+			SmartMenuItem[] items = mItems;
+			for (int i=0; i<items.length; i++) {
+				if (items[i] == item) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		
+		/**
+		 * Display the items of a submenu, the current layout is kept to come back
+		 */
+		private void openSubMenu(SmartMenuItem item, SmartMenuItem[] children) {
+			synchronized (mFrameLock) {
+				mSubMenuPath.add(item);
+				mSubMenuItems.add(mItems);
+				mSubMenuLayouts.add(mLayout);
+				mItems = children;
+				updateLayout(true);
+				startSubMenuAnimation();
+			}
+			warmIcons();
+			redraw();
+		}
+		
+		/**
+		 * Come back to the parent menu
+		 * @return false if the root menu is displayed
+		 */
+		private boolean closeSubMenu() {
+			synchronized (mFrameLock) {
+				int last = mSubMenuPath.size() - 1;
+				if (last < 0) {
+					return false;
+				}
+				mSubMenuPath.remove(last);
+				// The parent items are kept while the submenu is opened, as they
+				// may have been evicted from the submenus cache since
+				mItems = mSubMenuItems.remove(last);
+				// The parent layout is still valid unless the size changed
+				mLayout = mSubMenuLayouts.remove(last);
+				mPendingSubMenu = null;
+				updateLayout(true);
+				startSubMenuAnimation();
+			}
+			redraw();
+			return true;
+		}
+		
+		private final Runnable mWarmIcons = new Runnable() {
+			@Override
+			public void run() {
+				warmIcons();
+			}
+		};
+		
+		/**
+		 * Prepare the icons of the displayed items which are not ready yet
+		 * Must be called from the UI thread
+		 */
+		private void warmIcons() {
+			SmartMenuItem[] items = mItems;
+			for (int i=0; i<items.length; i++) {
+				items[i].warmIcon();
+			}
+		}
+		
+		/**
+		 * Extend the branches of the displayed items again, the circle stays drawn
+		 * Must be called with the frame lock held
+		 */
+		private void startSubMenuAnimation() {
+			// The branches of the new items are not extended yet
+			mCurrentBranch = 0;
+			mCurrentBranchLength = 0;
+			mAnimationStart = -1;
+			mAnimating = true;
+			mAnimateCircle = false;
+			mStaticLayerValid = false;
+			mTouchPending = false;
+			mLabel = null;
+		}
+		
+		@Override
+		public boolean onTouchEvent(MotionEvent event) {
+			SmartMenuMetricsListener metrics = mParent.mMetricsListener;
+			int allocations = (metrics != null) ? Debug.getThreadAllocCount() : 0;
+			
+			SmartMenuItem selected = null;
+			boolean animating;
+			synchronized (mFrameLock) {
+				syncItems();
+				if (mLayout == null) {
+					return true;
+				}
+				
+				// Only redraw the areas modified since the last frame
+				mDirtyRect.setEmpty();
+				addHaloDamage(mDrawHalo, mHaloX, mHaloY);
+				
+				int index;
+				switch (event.getAction()) {
+				case MotionEvent.ACTION_DOWN:
+				case MotionEvent.ACTION_MOVE:
+					if (event.getAction() == MotionEvent.ACTION_DOWN) {
+						mPredictor.reset();
+					}
 					
-					if (Math.sqrt( (event.getX() - x)*(event.getX() - x) + (event.getY() - y) * (event.getY() - y) ) <= sBranchesRadius) {
-						if (mItems.get(i).onItemSelected()) {
-							// Close the menu
-							close();
+					// Test all the points batched since the previous event, so that
+					// a fast move across an item is not missed
+					int hovered = -1;
+					int history = event.getHistorySize();
+					for (int i=0; i<history; i++) {
+						float x = event.getHistoricalX(i);
+						float y = event.getHistoricalY(i);
+						mPredictor.addSample(x, y, event.getHistoricalEventTime(i));
+						index = mHitIndex.hitTest(x, y);
+						if (isExtended(index)) {
+							hovered = index;
 						}
 					}
+					mPredictor.addSample(event.getX(), event.getY(), event.getEventTime());
+					index = mHitIndex.hitTest(event.getX(), event.getY());
+					if (isExtended(index)) {
+						hovered = index;
+					}
+					int predicted = (hovered < 0) ? predictTarget(event.getX(), event.getY()) : -1;
+					
+					// Only the latest position matters for the halo
+					SmartMenuItem item = (hovered >= 0) ? mItems[hovered] : null;
+					if (predicted >= 0) {
+						// Show the label and prepare the resources of the target in advance
+						item = mItems[predicted];
+						item.warmIcon();
+					}
+					if (item != null && item != mLabel && mHighlightEventTime < 0
+							&& mParent.mMetricsListener != null) {
+						mHighlightEventTime = System.nanoTime();
+					}
+					if (item != null && item != mLabel && item.hasSubMenu()) {
+						// Resolve the submenu while the user is hovering its branch
+						requestSubMenu(item);
+					}
+					setPendingTouch(true, event.getX(), event.getY(), item, predicted);
+					break;
+				case MotionEvent.ACTION_UP:
+					setPendingTouch(false, mHaloX, mHaloY, mTouchPending ? mPendingLabel : mLabel, -1);
+					index = mHitIndex.hitTest(event.getX(), event.getY());
+					if (isExtended(index)) {
+						selected = mItems[index];
+					}
+					break;
+				default:
 				}
+				animating = mAnimating;
+			}
+			
+			boolean redrawn = true;
+			SmartMenuRenderSurface surface = mRenderSurface;
+			if (surface != null) {
+				surface.requestFrame();
+			} else if (animating) {
+				// The whole view is redrawn anyway
 				invalidate();
-				break;
-			default:
+			} else if (!mDirtyRect.isEmpty()) {
+				invalidate(mDirtyRect);
+			} else {
+				redrawn = false;
+			}
+			
+			if (metrics != null) {
+				metrics.onMetric(SmartMenuMetrics.TOUCH_REDRAWS, redrawn ? 1 : 0);
+				metrics.onMetric(SmartMenuMetrics.TOUCH_ALLOCATIONS, Debug.getThreadAllocCount() - allocations);
+			}
+			
+			// The selection is always handled on the UI thread
+			if (selected != null && selected.hasSubMenu()) {
+				SmartMenuItem[] children = requestSubMenu(selected);
+				if (children != null) {
+					openSubMenu(selected, children);
+				} else {
+					// Opened once resolved
+					mPendingSubMenu = selected;
+				}
+			} else if (selected != null && selected.onItemSelected()) {
+				// Close the menu
+				close();
 			}
 			return true;
 		}
 		
+		/**
+		 * Find the item the finger is moving to, from its recent velocity
+		 * @param x Current position
+		 * @param y Current position
+		 * @return The index of the item, or -1
+		 */
+		private int predictTarget(float x, float y) {
+			if (!mPredictor.predict()) {
+				return -1;
+			}
+			
+			// Only when the finger moves away from the center, towards the items
+			SmartMenuLayout layout = mLayout;
+			float dx = x - layout.centerX;
+			float dy = y - layout.centerY;
+			if (mPredictor.getVelocityX() * dx + mPredictor.getVelocityY() * dy <= 0) {
+				return -1;
+			}
+			float px = mPredictor.getPredictedX();
+			float py = mPredictor.getPredictedY();
+			float pdx = px - layout.centerX;
+			float pdy = py - layout.centerY;
+			if (pdx * pdx + pdy * pdy < layout.centerRadius * layout.centerRadius) {
+				return -1;
+			}
+			
+			int index = mHitIndex.sectorTest(px, py);
+			return isExtended(index) ? index : -1;
+		}
+		
+		/**
+		 * Items only react to the touch once their branch is fully extended
+		 * Must be called with the frame lock held
+		 * @param index Index of an item, or -1
+		 * @return true if the item is displayed
+		 */
+		private boolean isExtended(int index) {
+			return index >= 0 && index < mCurrentBranch;
+		}
+		
+		/**
+		 * Store the new touch state, it will be applied by the next frame
+		 * Several events received during the same frame only cause one redraw
+		 * @param drawHalo
+		 * @param haloX
+		 * @param haloY
+		 * @param label Item whose label must be displayed, or null
+		 * @param predicted Index of the item to highlight, or -1
+		 */
+		private void setPendingTouch(boolean drawHalo, float haloX, float haloY, SmartMenuItem label, int predicted) {
+			mPendingDrawHalo = drawHalo;
+			mPendingHaloX = haloX;
+			mPendingHaloY = haloY;
+			addHaloDamage(drawHalo, haloX, haloY);
+			
+			if (label != mLabel) {
+				addLabelDamage();
+			}
+			mPendingLabel = label;
+			
+			if (predicted != mPredicted) {
+				addItemDamage(mPredicted);
+				addItemDamage(predicted);
+			}
+			mPendingPredicted = predicted;
+			mTouchPending = true;
+		}
+		
+		/**
+		 * Apply the touch state received since the last frame
+		 */
+		private void applyPendingTouch() {
+			if (mTouchPending) {
+				mDrawHalo = mPendingDrawHalo;
+				mHaloX = mPendingHaloX;
+				mHaloY = mPendingHaloY;
+				mLabel = mPendingLabel;
+				mPredicted = mPendingPredicted;
+				mTouchPending = false;
+			}
+		}
+		
+		/**
+		 * Add the area covered by the halo at the given position to the dirty area
+		 * @param drawHalo false if the halo is not drawn
+		 * @param x
+		 * @param y
+		 */
+		private void addHaloDamage(boolean drawHalo, float x, float y) {
+			if (drawHalo && mParent.mDisplayHalo) {
+				int radius = mHalo.getRadius() + 1;
+				mDirtyRect.union((int) x - radius, (int) y - radius,
+						(int) x + radius + 1, (int) y + radius + 1);
+			}
+		}
+		
+		/**
+		 * Add the area covered by the highlight of an item to the dirty area
+		 * @param index Index of the item, or -1
+		 */
+		private void addItemDamage(int index) {
+			SmartMenuLayout layout = mLayout;
+			if (index < 0 || index >= layout.branchCount) {
+				return;
+			}
+			int radius = layout.branchesRadius + HIGHLIGHT_MARGIN + 1;
+			int x = (int) layout.getIconX(index);
+			int y = (int) layout.getIconY(index);
+			mDirtyRect.union(x - radius, y - radius, x + radius + 1, y + radius + 1);
+		}
+		
+		/**
+		 * Add the area covered by the label to the dirty area
+		 */
+		private void addLabelDamage() {
+			int border = (int) Math.ceil(mPainter.getStrokeWidth()) + 1;
+			mDirtyRect.union((int) mLabelRect.left - border, (int) mLabelRect.top - border,
+					(int) mLabelRect.right + border, (int) mLabelRect.bottom + border);
+		}
+		
 		@Override
 		public boolean onKeyDown(int keyCode, KeyEvent event) {
 			if (keyCode == KeyEvent.KEYCODE_BACK) {
-				close();
+				if (!closeSubMenu()) {
+					close();
+				}
 			}
 			return true;
 		}
 
+		/**
+		 * Get the menu geometry for the current size and number of items
+		 * It is only computed again if one of them changed
+		 * @param itemsChanged true to update the items positions even if their number is the same
+		 */
+		private void updateLayout(boolean itemsChanged) {
+			int width = getWidth();
+			int height = getHeight();
+			if (width <= 0 || height <= 0) {
+				// Not laid out yet
+				return;
+			}
+			
+			SmartMenuLayout layout = SmartMenuLayout.obtain(mLayout, width, height, mItems.length, sBranchesRadius);
+			if (layout == mLayout && !itemsChanged) {
+				return;
+			}
+			mLayout = layout;
+			
+			mArcRect.set(layout.centerX - layout.centerRadius, layout.centerY - layout.centerRadius,
+					layout.centerX + layout.centerRadius, layout.centerY + layout.centerRadius);
+			mLabelRect.set(layout.labelMargin, layout.labelMargin,
+					layout.labelMargin + layout.labelWidth, layout.labelMargin + layout.labelHeight);
+			mTextPainter.setTextSize(layout.labelFont);
+			mLabelX = layout.labelMargin + layout.labelWidth / 2;
+			mLabelY = layout.labelMargin * 2 + layout.labelHeight / 2;
+			
+			// Items positions are known before they are drawn
+			int count = layout.itemCount;
+			mHitIndex.build(layout.centerX, layout.centerY, layout.getRingRadius(), layout.branchesRadius, count);
+			for (int i=0; i<count && i<SmartMenuHitIndex.SLOTS; i++) {
+				mItems[i].setPosition((int) layout.getIconX(i), (int) layout.getIconY(i));
+			}
+			
+			// Measure all the labels now rather than while the user is moving
+			for (int i=0; i<mItems.length; i++) {
+				mItems[i].getLabel(layout, mTextPainter);
+			}
+			
+			if (itemsChanged) {
+				mPredicted = mPendingPredicted = -1;
+			}
+			
+			mCirclesPath.rewind();
+			mCirclesPathCount = 0;
+			mStaticLayerValid = false;
+		}
+		
+		@Override
+		protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+			super.onSizeChanged(w, h, oldw, oldh);
+			synchronized (mFrameLock) {
+				updateLayout(false);
+			}
+		}
+		
+		/**
+		 * Free the memory used by the offscreen bitmap
+		 */
+		protected void releaseStaticLayer() {
+			synchronized (mFrameLock) {
+				mStaticLayerValid = false;
+				if (mStaticLayer != null) {
+					mStaticLayer.recycle();
+					mStaticLayer = null;
+					mStaticCanvas = null;
+				}
+			}
+		}
+		
+		/**
+		 * Draw the fully drawn menu into the offscreen bitmap
+		 * The bitmap only covers the menu, around its center
+		 * @return false if the view is too small for the menu to have an extent,
+		 * it must then be drawn directly
+		 */
+		private boolean buildStaticLayer() {
+			int extent = mLayout.getExtent() + (int) Math.ceil(mPainter.getStrokeWidth()) + 1;
+			int size = 2 * extent;
+			if (size <= 0) {
+				releaseStaticLayer();
+				return false;
+			}
+			
+			if (mStaticLayer == null || mStaticLayer.getWidth() != size) {
+				releaseStaticLayer();
+				mStaticLayer = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+				mStaticCanvas = new Canvas(mStaticLayer);
+			} else {
+				mStaticLayer.eraseColor(Color.TRANSPARENT);
+			}
+			mStaticLayerLeft = mLayout.centerX - extent;
+			mStaticLayerTop = mLayout.centerY - extent;
+			
+			mStaticCanvas.save();
+			mStaticCanvas.translate(-mStaticLayerLeft, -mStaticLayerTop);
+			drawMenu(mStaticCanvas);
+			mStaticCanvas.restore();
+			mStaticLayerValid = true;
+			return true;
+		}
+		
 		@Override
 		public void onDraw(Canvas canvas) {
-			// Init global values
-			if (!mComputedValues) { // Do it only once until reset
-				if (getMeasuredHeight() > 400) {
-					sLabelHeight = 40;
-					sLabelMargin = 10;
-					sLabelFont = 30;
-				} else {
-					sLabelHeight = 20;
-					sLabelMargin = 5;
-					sLabelFont = 15;
+			if (mRenderSurface != null) {
+				// Only the background is drawn in this view
+				return;
+			}
+			
+			// Ask for the next frame until the menu is fully drawn
+			if (drawFrame(canvas)) {
+				invalidate();
+			}
+		}
+		
+		/**
+		 * Draw a frame of the menu, from the UI thread or the render thread
+		 * @param canvas
+		 * @return true if the animation is running and needs another frame
+		 */
+		boolean drawFrame(Canvas canvas) {
+			SmartMenuMetricsListener metrics = mParent.mMetricsListener;
+			SmartMenuQualityGovernor governor = mParent.mQualityGovernor;
+			long start = 0;
+			int allocations = 0;
+			if (metrics != null || governor != null) {
+				start = System.nanoTime();
+			}
+			if (metrics != null) {
+				allocations = Debug.getThreadAllocCount();
+			}
+			synchronized (mFrameLock) {
+				syncItems();
+				if (mLayout == null) {
+					return false;
 				}
+				boolean animated = mAnimating;
+				drawFrameLocked(canvas);
 				
-				if (getMeasuredWidth() > getMeasuredHeight()) {
-					// Landscape
-					sBranchesLength = sCenterRadius = getMeasuredHeight() / 4 - sBranchesRadius - 5;
-					sLabelWidth = getMeasuredWidth()/2 - sCenterRadius * 2 - sBranchesRadius * 2 - sLabelMargin;
-				} else {
-					// Portrait
-					sBranchesLength = sCenterRadius = getMeasuredWidth() / 4 - sBranchesRadius - 5;
-					sLabelWidth = getMeasuredWidth() - 2 * sLabelMargin;
+				if (metrics != null || governor != null) {
+					// Interval between two animation frames, or -1
+					long interval = -1;
+					if (animated) {
+						if (mLastFrameTime >= 0) {
+							interval = (start - mLastFrameTime) / 1000;
+						}
+						mLastFrameTime = start;
+					}
+					long duration = (System.nanoTime() - start) / 1000;
+					
+					if (metrics != null) {
+						metrics.onMetric(SmartMenuMetrics.FRAME_ALLOCATIONS, Debug.getThreadAllocCount() - allocations);
+						reportFrameMetrics(metrics, duration, interval, animated);
+					}
+					// A late animation frame shows the load better than the drawing time
+					if (governor != null && governor.addFrameTime(Math.max(duration, interval))) {
+						qualityChanged();
+					}
 				}
-				
-				mCenterX = getMeasuredWidth() / 2 ;
-				mCenterY = getMeasuredHeight() / 2 ;
-				
-				mComputedValues = true;
+				return mAnimating;
+			}
+		}
+		
+		/**
+		 * Report the measures completed by the frame just drawn
+		 * @param metrics
+		 * @param duration Time spent to draw the frame, in microseconds
+		 * @param interval Time since the previous animation frame, in microseconds, or -1
+		 * @param animated true if the frame was part of the opening animation
+		 */
+		private void reportFrameMetrics(SmartMenuMetricsListener metrics, long duration, long interval, boolean animated) {
+			metrics.onMetric(SmartMenuMetrics.DRAW_TIME, duration);
+			if (!animated) {
+				metrics.onMetric(SmartMenuMetrics.SETTLED_FRAME, duration);
+			}
+			
+			if (interval > SmartMenuMetrics.LATE_FRAME_THRESHOLD) {
+				metrics.onMetric(SmartMenuMetrics.LATE_FRAME, interval);
+			}
+			
+			if (!mAnimating && mOpenRequestTime >= 0) {
+				metrics.onMetric(SmartMenuMetrics.OPEN_LATENCY, (System.nanoTime() - mOpenRequestTime) / 1000);
+				mOpenRequestTime = -1;
+			}
+			
+			if (mHighlightEventTime >= 0) {
+				if (mLabel != null) {
+					metrics.onMetric(SmartMenuMetrics.HIGHLIGHT_LATENCY,
+							(System.nanoTime() - mHighlightEventTime) / 1000);
+				}
+				mHighlightEventTime = -1;
+			}
+		}
+		
+		/**
+		 * @return true if a metrics listener is attached, the clocks must not be read otherwise
+		 */
+		boolean isMetricsEnabled() {
+			return mParent.mMetricsListener != null;
+		}
+		
+		/**
+		 * Report a performance measure, if a listener is attached
+		 * @param metric
+		 * @param value
+		 */
+		void reportMetric(int metric, long value) {
+			SmartMenuMetricsListener metrics = mParent.mMetricsListener;
+			if (metrics != null) {
+				metrics.onMetric(metric, value);
 			}
+		}
+		
+		private void drawFrameLocked(Canvas canvas) {
+			applyPendingTouch();
 			
 			// Draw the halo if the user touch the screen
 			if (mDrawHalo && mParent.mDisplayHalo) {
 				drawHalo(canvas);
 			}
+			
+			// Highlight the item the finger is moving to
+			if (mPredicted >= 0 && mPredicted < mLayout.branchCount) {
+				canvas.drawCircle(mLayout.getIconX(mPredicted), mLayout.getIconY(mPredicted),
+						mLayout.branchesRadius + HIGHLIGHT_MARGIN, mHighlightPainter);
+			}
 						
 			// Draw the label only if necessary
-			if (mText != null && mText.length() > 0) {
-				drawLabel(canvas, mText);
+			if (mLabel != null) {
+				drawLabel(canvas, mLabel);
 			}
 			
-			// Draw the centered circle
-			canvas.drawArc(new RectF(mCenterX-sCenterRadius, mCenterY-sCenterRadius, mCenterX+sCenterRadius, mCenterY+sCenterRadius),
-					-90, mCurrentAngle, false, mPainter);
+			if (mAnimating) {
+				updateAnimation();
+			}
 			
-			if (mCurrentAngle < 360) {
-				mCurrentAngle += sCircleSpeed;
-				invalidate();
-				return;
+			if (!mAnimating && mParent.mUseStaticLayer
+					&& (mStaticLayerValid || buildStaticLayer())) {
+				// The menu will not change anymore, draw it only once
+				canvas.drawBitmap(mStaticLayer, mStaticLayerLeft, mStaticLayerTop, null);
 			} else {
+				drawMenu(canvas);
+			}
+		}
+		
+		/**
+		 * Draw the circle and the branches, according to the animation state
+		 * @param canvas
+		 */
+		private void drawMenu(Canvas canvas) {
+			// Draw the centered circle
+			canvas.drawArc(mArcRect, -90, mCurrentAngle, false, mPainter);
+			
+			if (mCurrentAngle >= 360) {
 				// End of circle, draw branches
-				if (mItems.size() <= 4) {
-					// Use positions 0, 2, 4, 6
-					for (int i=0; i<mCurrentBranch; i++) {
-						drawBranch(canvas, i*2, sBranchesLength, mItems.get(i));
+				SmartMenuLayout layout = mLayout;
+				SmartMenuItem[] items = mItems;
+				int extended = Math.min(mCurrentBranch, layout.branchCount);
+				
+				// The branches may be drawn without anti-aliasing to save time
+				boolean antiAlias = mPainter.isAntiAlias();
+				boolean lineAntiAlias = antiAlias
+						&& mParent.getQualityTier() < SmartMenuQualityGovernor.TIER_NO_LINE_ANTIALIAS;
+				
+				// Fully extended branches are precomputed
+				if (extended > 0) {
+					mPainter.setAntiAlias(lineAntiAlias);
+					canvas.drawLines(layout.branchLines, 0, 4 * extended, mPainter);
+					mPainter.setAntiAlias(antiAlias);
+					for (int i=0; i<extended; i++) {
+						drawIcon(canvas, layout.getIconX(i), layout.getIconY(i), items[i]);
 					}
-					
-					if (mCurrentBranch < mItems.size()) {
-						drawBranch(canvas, mCurrentBranch*2, mCurrentBranchLength, mItems.get(mCurrentBranch));
-						
-						if (mCurrentBranchLength >= sBranchesLength) {
-							// Go to the next branch
-							mCurrentBranchLength = 0;
-							mCurrentBranch++;
-						} else {
-							mCurrentBranchLength += sLineSpeed;
+					if (mCirclesPathCount != extended) {
+						if (mCirclesPathCount > extended) {
+							// The animation restarted
+							mCirclesPath.rewind();
+							mCirclesPathCount = 0;
 						}
-						invalidate();
-						return;
-					} else {
-						// Ended
-					}
-				} else {
-					// Use all positions
-					for (int i=0; i<mCurrentBranch; i++) {
-						drawBranch(canvas, i, sBranchesLength, mItems.get(i));
-					}
-					
-					if (mCurrentBranch < mItems.size()) {
-						drawBranch(canvas, mCurrentBranch, mCurrentBranchLength, mItems.get(mCurrentBranch));
-						
-						if (mCurrentBranchLength >= sBranchesLength) {
-							mCurrentBranchLength = 0;
-							mCurrentBranch++;
-						} else {
-							mCurrentBranchLength += sLineSpeed;
+						for (int i=mCirclesPathCount; i<extended; i++) {
+							mCirclesPath.addCircle(layout.getIconX(i), layout.getIconY(i), layout.branchesRadius, Path.Direction.CW);
 						}
-						invalidate();
-						return;
-					} else {
-						// Ended
+						mCirclesPathCount = extended;
 					}
+					canvas.drawPath(mCirclesPath, mPainter);
+				}
+				
+				// Only the growing branch is interpolated
+				if (mCurrentBranch < layout.branchCount) {
+					int i = mCurrentBranch;
+					float x1 = layout.branchLines[4 * i];
+					float y1 = layout.branchLines[4 * i + 1];
+					mPainter.setAntiAlias(lineAntiAlias);
+					canvas.drawLine(x1, y1, x1 + layout.branchDirections[2 * i] * mCurrentBranchLength,
+							y1 + layout.branchDirections[2 * i + 1] * mCurrentBranchLength, mPainter);
+					mPainter.setAntiAlias(antiAlias);
 				}
 			}
 		}
 		
-		private void drawBranch(Canvas canvas, int position, int length, SmartMenuItem icon) {
-			float x1=0, x2=0, y1=0, y2=0, x3=0, y3=0;
-			switch (position) {
-			case 0:
-				x1 = x2 = x3 = mCenterX;
-				y1 = mCenterY - sCenterRadius;
-				y2 = y1 - length;
-				y3 = y2 - sBranchesRadius;
-				break;
-			case 1:
-				x1 = (float)(mCenterX + COS_45 * sCenterRadius);
-				y1 = (float)(mCenterY - SIN_45 * sCenterRadius);
-				x2 = (float)(x1 + COS_45 * length);
-				y2 = (float)(y1 - SIN_45 * length);
-				x3 = (float)(x2 + COS_45 * sBranchesRadius);
-				y3 = (float)(y2 - SIN_45 * sBranchesRadius);
-				break;
-			case 2:
-				y1 = y2 = y3 = mCenterY;
-				x1 = mCenterX + sCenterRadius;
-				x2 = x1 + length;
-				x3 = x2 + sBranchesRadius;
-				break;
-			case 3:
-				x1 = (float)(mCenterX + COS_45 * sCenterRadius);
-				y1 = (float)(mCenterY + SIN_45 * sCenterRadius);
-				x2 = (float)(x1 + COS_45 * length);
-				y2 = (float)(y1 + SIN_45 * length);
-				x3 = (float)(x2 + COS_45 * sBranchesRadius);
-				y3 = (float)(y2 + SIN_45 * sBranchesRadius);
-				break;
-			case 4:
-				x1 = x2 = x3 = mCenterX;
-				y1 = mCenterY + sCenterRadius;
-				y2 = y1 + length;
-				y3 = y2 + sBranchesRadius;
-				break;
-			case 5:
-				x1 = (float)(mCenterX - COS_45 * sCenterRadius);
-				y1 = (float)(mCenterY + SIN_45 * sCenterRadius);
-				x2 = (float)(x1 - COS_45 * length);
-				y2 = (float)(y1 + SIN_45 * length);
-				x3 = (float)(x2 - COS_45 * sBranchesRadius);
-				y3 = (float)(y2 + SIN_45 * sBranchesRadius);
-				break;
-			case 6:
-				y1 = y2 = y3 = mCenterY;
-				x1 = mCenterX - sCenterRadius;
-				x2 = x1 - length;
-				x3 = x2 - sBranchesRadius;
-				break;
-			case 7:
-				x1 = (float)(mCenterX - COS_45 * sCenterRadius);
-				y1 = (float)(mCenterY - SIN_45 * sCenterRadius);
-				x2 = (float)(x1 - COS_45 * length);
-				y2 = (float)(y1 - SIN_45 * length);
-				x3 = (float)(x2 - COS_45 * sBranchesRadius);
-				y3 = (float)(y2 - SIN_45 * sBranchesRadius);
-				break;
-			default:
-				return;
-			}
-			
-			canvas.drawLine(x1, y1, x2, y2, mPainter);
-			// Draw the final circle
-			if (length >= sBranchesLength) {
-				icon.setPosition((int)x3, (int)y3);
-				canvas.drawBitmap(icon.getIcon(), x3 - sBranchesRadius, y3 - sBranchesRadius, mPainter);
-				canvas.drawCircle(x3, y3, sBranchesRadius, mPainter);
+		/**
+		 * Draw the icon of an item, or a placeholder if it is not ready yet
+		 */
+		private void drawIcon(Canvas canvas, float x, float y, SmartMenuItem item) {
+			int radius = mLayout.branchesRadius;
+			Bitmap bitmap = item.getIcon();
+			if (bitmap != null) {
+				canvas.drawBitmap(bitmap, x - radius, y - radius, mPainter);
+			} else {
+				canvas.drawCircle(x, y, radius, mPlaceholderPainter);
 			}
 		}
 	
-		private void drawLabel(Canvas canvas, String text) {
-			RectF rect = new RectF(sLabelMargin, sLabelMargin, sLabelMargin + sLabelWidth, sLabelMargin + sLabelHeight);
-			canvas.drawRoundRect(rect, 10, 10, mPainter);
-			Paint textPainter = new Paint(Paint.ANTI_ALIAS_FLAG);
-			textPainter.setTextAlign(Paint.Align.CENTER);
-			textPainter.setTextSize(sLabelFont);
-			textPainter.setColor(Color.WHITE);
-			canvas.drawText(mText, sLabelMargin + sLabelWidth/2, sLabelMargin*2 + sLabelHeight/2, textPainter);
+		private void drawLabel(Canvas canvas, SmartMenuItem item) {
+			CharSequence label = item.getLabel(mLayout, mTextPainter);
+			if (label.length() > 0) {
+				canvas.drawRoundRect(mLabelRect, 10, 10, mPainter);
+				canvas.drawText(label, 0, label.length(), mLabelX, mLabelY, mTextPainter);
+			}
 		}
 		
 		private void drawHalo(Canvas canvas) {
-			// Separate the colors components
-			int ao, ro, go, bo, ac, rc, gc, bc;
-			
-			ao = Color.alpha(mParent.mHaloOutsideColor);
-			ro = Color.red(mParent.mHaloOutsideColor);
-			go = Color.green(mParent.mHaloOutsideColor);
-			bo = Color.blue(mParent.mHaloOutsideColor);
-			
-			ac = Color.alpha(mParent.mHaloCenterColor);
-			rc = Color.red(mParent.mHaloCenterColor);
-			gc = Color.green(mParent.mHaloCenterColor);
-			bc = Color.blue(mParent.mHaloCenterColor);
-			
-			for (int i=0; i<=mParent.mHaloGradient; i++) {
-				Paint painter = new Paint(Paint.ANTI_ALIAS_FLAG);
-				painter.setColor(Color.argb(
-						ao + (ac - ao)/mParent.mHaloGradient * i,
-						ro + (rc - ro)/mParent.mHaloGradient * i,
-						go + (gc - go)/mParent.mHaloGradient * i,
-						bo + (bc - bo)/mParent.mHaloGradient * i
-				));
-				painter.setStyle(Paint.Style.FILL);
-				canvas.drawCircle(mHaloX, mHaloY, mParent.mHaloRadius - (mParent.mHaloRadius/mParent.mHaloGradient) * i, painter);
-			}
+			mHalo.draw(canvas, mHaloX, mHaloY);
 		}
 
+		/**
+		 * Display a label which does not belong to an item
+		 * @param text The text of the label, or null to hide it
+		 */
 		public void setText(String text) {
-			this.mText = text;
+			synchronized (mFrameLock) {
+				mLabel = (text != null) ? new SmartMenuItem(text) : null;
+				mTouchPending = false;
+			}
+			redraw();
 		}
-
+		
+		/**
+		 * @return The text of the label currently displayed, or null
+		 */
 		public String getText() {
-			return mText;
+			return (mLabel != null) ? mLabel.getText() : null;
 		}
 	}
 	
@@ -658,6 +1916,30 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 		// Position is used to test if the user is touching one of the elements
 		private int mX = 0, mY = 0;
 		
+		// Label measured and ellipsized for the layout it was computed for
+		private CharSequence mLabel = null;
+		private SmartMenuLayout mLabelLayout = null;
+		
+		// Icons are prepared in background and shared through the icon cache,
+		// only the last requested one is kept
+		private SmartMenuIconFactory.IconKey mIconKey = null;
+		// Source of the icon when given as a bitmap, kept to prepare the icon again if it is evicted
+		private Bitmap mIconSource = null;
+		private int mIconRequest = 0;
+		private boolean mIconPending = false;
+		private SmartMenuCircleView mOwner = null;
+		
+		// Creates the items of the submenu of this item, or null
+		private SubMenuProvider mSubMenuProvider = null;
+		
+		/**
+		 * The icon can be given later, a placeholder is drawn until then
+		 * @param text Text displayed
+		 */
+		public SmartMenuItem(String text) {
+			this.mText = text;
+		}
+		
 		/**
 		 * @param text Text displayed
 		 * @param icon Bitmap displayed into the circle
@@ -666,12 +1948,27 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 			this.mText = text;
 			this.setIcon(icon);
 		}
+		
+		/**
+		 * The icon is decoded in background, directly at the size of the circle
+		 * @param text Text displayed
+		 * @param resources Resources containing the icon
+		 * @param iconId Identifier of the drawable displayed into the circle
+		 */
+		public SmartMenuItem(String text, Resources resources, int iconId) {
+			this.mText = text;
+			this.setIcon(resources, iconId);
+		}
 
 		/**
 		 * @param text
 		 */
 		public void setText(String text) {
 			this.mText = text;
+			this.mLabel = null;
+			if (mOwner != null) {
+				mOwner.postRedraw();
+			}
 		}
 
 		/**
@@ -680,21 +1977,134 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 		public String getText() {
 			return mText;
 		}
+		
+		/**
+		 * Get the label text, ellipsized to fit in the label area
+		 * It is only computed again when the text or the layout change
+		 * @param layout
+		 * @param painter Painter used to draw the label, its size must match the layout
+		 * @return
+		 */
+		CharSequence getLabel(SmartMenuLayout layout, TextPaint painter) {
+			if (mLabel == null || mLabelLayout != layout) {
+				String text = (mText != null) ? mText : "";
+				int width = Math.max(0, layout.labelWidth - 2 * layout.labelMargin);
+				mLabel = TextUtils.ellipsize(text, painter, width, TextUtils.TruncateAt.END);
+				mLabelLayout = layout;
+			}
+			return mLabel;
+		}
 
 		/**
+		 * The icon is prepared in background, a placeholder is drawn until it is ready
 		 * @param icon
 		 */
 		public void setIcon(Bitmap icon) {
-			this.mIcon = SmartMenuIconFactory.createRoundedBitmap(icon);
+			this.mIconSource = icon;
+			requestIcon(SmartMenuIconFactory.getKey(icon));
+		}
+		
+		/**
+		 * The icon is decoded in background, a placeholder is drawn until it is ready
+		 * @param resources
+		 * @param iconId
+		 */
+		public void setIcon(Resources resources, int iconId) {
+			this.mIconSource = null;
+			requestIcon(SmartMenuIconFactory.getKey(resources, iconId));
+		}
+		
+		/**
+		 * The icon is only prepared when the menu is opened and displays this item,
+		 * a placeholder is drawn until it is ready
+		 * @param resources
+		 * @param iconId
+		 */
+		public void setIconLater(Resources resources, int iconId) {
+			this.mIconKey = SmartMenuIconFactory.getKey(resources, iconId);
+			this.mIconSource = null;
+			this.mIcon = null;
+			this.mIconPending = false;
+			// Drop the icon requested before, if any
+			this.mIconRequest++;
+		}
+		
+		private void requestIcon(SmartMenuIconFactory.IconKey key) {
+			this.mIconKey = key;
+			this.mIcon = null;
+			this.mIconPending = true;
+			SmartMenuIconFactory.prepareIcon(key, new IconListener(++mIconRequest));
 		}
 
 		/**
-		 * @return
+		 * Add the prepared icon of this item, if any
+		 * @param keys
+		 * @param icons
+		 */
+		void collectIcon(ArrayList<SmartMenuIconFactory.IconKey> keys, ArrayList<Bitmap> icons) {
+			Bitmap icon = getIcon();
+			if (mIconKey != null && icon != null) {
+				keys.add(mIconKey);
+				icons.add(icon);
+			}
+		}
+		
+		/**
+		 * Prepare the icon if it was not requested yet, or again if it was
+		 * evicted from the cache before being used
+		 * Must be called from the UI thread
+		 */
+		void warmIcon() {
+			if (mIconKey != null && mIcon == null && !mIconPending
+					&& SmartMenuIconFactory.peekCachedIcon(mIconKey) == null) {
+				requestIcon(mIconKey);
+			}
+		}
+		
+		/**
+		 * @return The rounded icon, or null if it is not ready yet
 		 */
 		public Bitmap getIcon() {
+			if (mIconKey != null) {
+				// Keep the icon in use at the head of the cache
+				Bitmap cached = SmartMenuIconFactory.peekCachedIcon(mIconKey);
+				if (cached != null) {
+					mIcon = cached;
+				}
+			}
 			return mIcon;
 		}
 		
+		/**
+		 * Receive the icon prepared in background
+		 */
+		private class IconListener implements SmartMenuIconFactory.OnIconReadyListener {
+			private final int mRequest;
+			// In nanoseconds, or -1 when no metrics listener is attached
+			private final long mRequestTime;
+			
+			IconListener(int request) {
+				this.mRequest = request;
+				this.mRequestTime = (mOwner != null && mOwner.isMetricsEnabled()) ? System.nanoTime() : -1;
+			}
+			
+			@Override
+			public void onIconReady(Bitmap icon) {
+				// Drop the icon if another one was requested since
+				if (mRequest == mIconRequest) {
+					mIcon = icon;
+					mIconPending = false;
+					if (mOwner != null) {
+						if (mRequestTime >= 0) {
+							mOwner.reportMetric(SmartMenuMetrics.ICON_PREPARATION_TIME,
+									(System.nanoTime() - mRequestTime) / 1000);
+						}
+						mOwner.iconChanged();
+					}
+				}
+			}
+		}
+		
 		/** 
 		 * @param x
 		 * @param y
@@ -732,6 +2142,31 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 			return mY;
 		}
 		
+		/**
+		 * @return The provider creating the submenu of this item, or null
+		 */
+		public SubMenuProvider getSubMenuProvider() {
+			return mSubMenuProvider;
+		}
+		
+		/**
+		 * Give a submenu to this item
+		 * The provider is called in background the first time the item is
+		 * hovered or selected, and the submenu opens when the item is selected.
+		 * onItemSelected() is not called for an item with a submenu.
+		 * @param provider A submenu provider, or null to remove the submenu
+		 */
+		public void setSubMenuProvider(SubMenuProvider provider) {
+			this.mSubMenuProvider = provider;
+		}
+		
+		/**
+		 * @return true if this item opens a submenu
+		 */
+		public boolean hasSubMenu() {
+			return mSubMenuProvider != null;
+		}
+		
 		/**
 		 * This method must be overrided to add an action to the item
 		 * @return true if the menu must be closed, false otherwise
@@ -741,22 +2176,340 @@ public class SmartMenuOverlayView extends GestureOverlayView implements OnGestur
 		}
 	}
 	
+	/**
+	 * What a menu keeps across a configuration change, see retainState()
+	 * It does not reference the activity nor the views, so it can be
+	 * kept while the activity is recreated.
+	 */
+	public static final class RetainedState {
+		private final GestureLibrary	mLibrary;
+		private final boolean			mOpened;
+		private final ArrayList<SmartMenuIconFactory.IconKey>	mIconKeys;
+		private final ArrayList<Bitmap>	mIcons;
+		
+		private RetainedState(GestureLibrary library, boolean opened,
+				ArrayList<SmartMenuIconFactory.IconKey> iconKeys, ArrayList<Bitmap> icons) {
+			this.mLibrary = library;
+			this.mOpened = opened;
+			this.mIconKeys = iconKeys;
+			this.mIcons = icons;
+		}
+		
+		/**
+		 * @return The loaded gesture library, or null
+		 */
+		public GestureLibrary getGestureLibrary() {
+			return mLibrary;
+		}
+		
+		/**
+		 * @return true if the menu was opened
+		 */
+		public boolean isOpened() {
+			return mOpened;
+		}
+		
+		/**
+		 * Put the retained icons back in the cache, in case they were evicted
+		 */
+		private void restoreIcons() {
+			for (int i=0; i<mIconKeys.size(); i++) {
+				SmartMenuIconFactory.putCachedIcon(mIconKeys.get(i), mIcons.get(i));
+			}
+		}
+	}
+	
+	/**
+	 * Create the items of a submenu
+	 */
+	public interface SubMenuProvider {
+		/**
+		 * Called on a background thread, the first time the submenu is needed
+		 * Items created with a drawable identifier start preparing their icon at once
+		 * @param parent The item opening the submenu
+		 * @return The items of the submenu, only the first 8 are displayed
+		 */
+		List<SmartMenuItem> createSubMenu(SmartMenuItem parent);
+	}
+	
 	public static class SmartMenuIconFactory {
+		/** Icon cropped to a circle */
+		public static final int MASK_CIRCLE = 0;
+		
+		// Icons are prepared on a background thread shared by all the items
+		private static ExecutorService	sExecutor;
+		private static Handler			sMainHandler;
+		
+		// Prepared icons shared by all the menus, the least recently used are evicted first
+		private static final LinkedHashMap<IconKey, Bitmap> sCache = new LinkedHashMap<IconKey, Bitmap>(16, 0.75f, true);
+		private static int	sCacheMaxBytes = 1024 * 1024;
+		private static int	sCacheBytes = 0;
+		private static int	sHitCount = 0;
+		private static int	sMissCount = 0;
+		
+		/**
+		 * Identify a prepared icon by its source, its radius and its mask style
+		 */
+		public static final class IconKey {
+			// Either a drawable identifier or a bitmap, which is not kept alive by the key
+			private final Resources					mResources;
+			private final int						mResourceId;
+			private final WeakReference<Bitmap>		mBitmap;
+			private final int						mBitmapHash;
+			private final int						mRadius;
+			private final int						mMask;
+			
+			private IconKey(Resources resources, int resourceId, Bitmap bitmap, int radius, int mask) {
+				this.mResources = resources;
+				this.mResourceId = resourceId;
+				this.mBitmap = (bitmap != null) ? new WeakReference<Bitmap>(bitmap) : null;
+				this.mBitmapHash = System.identityHashCode(bitmap);
+				this.mRadius = radius;
+				this.mMask = mask;
+			}
+			
+			@Override
+			public boolean equals(Object o) {
+				if (this == o) {
+					return true;
+				}
+				if (!(o instanceof IconKey)) {
+					return false;
+				}
+				IconKey other = (IconKey) o;
+				if (mRadius != other.mRadius || mMask != other.mMask || mResourceId != other.mResourceId) {
+					return false;
+				}
+				if (mBitmap == null || other.mBitmap == null) {
+					return mBitmap == other.mBitmap;
+				}
+				Bitmap bitmap = mBitmap.get();
+				return bitmap != null && bitmap == other.mBitmap.get();
+			}
+			
+			@Override
+			public int hashCode() {
+				return ((mResourceId * 31 + mBitmapHash) * 31 + mRadius) * 31 + mMask;
+			}
+			
+			/**
+			 * @return The source bitmap, or null if the key uses a drawable or the bitmap was collected
+			 */
+			private Bitmap getSource() {
+				return (mBitmap != null) ? mBitmap.get() : null;
+			}
+			
+			/**
+			 * @param source The source bitmap, kept alive by the caller until the icon is ready
+			 * @return The rounded icon, or null
+			 */
+			private Bitmap createIcon(Bitmap source) {
+				if (mBitmap == null) {
+					return decodeRoundedBitmap(mResources, mResourceId);
+				}
+				return (source != null) ? createRoundedBitmap(source) : null;
+			}
+		}
+		
+		/**
+		 * @param input Any input bitmap
+		 * @return The key of the rounded icon created from this bitmap
+		 */
+		public static IconKey getKey(Bitmap input) {
+			return new IconKey(null, 0, input, sBranchesRadius, MASK_CIRCLE);
+		}
+		
+		/**
+		 * @param resources
+		 * @param id Identifier of a drawable
+		 * @return The key of the rounded icon created from this drawable
+		 */
+		public static IconKey getKey(Resources resources, int id) {
+			return new IconKey(resources, id, null, sBranchesRadius, MASK_CIRCLE);
+		}
+		
+		/**
+		 * Get a prepared icon, without counting a hit or a miss
+		 * @param key
+		 * @return The icon, or null if it is not in the cache
+		 */
+		public static synchronized Bitmap peekCachedIcon(IconKey key) {
+			return sCache.get(key);
+		}
+		
+		private static synchronized Bitmap getCachedIcon(IconKey key) {
+			Bitmap icon = sCache.get(key);
+			if (icon != null) {
+				sHitCount++;
+			} else {
+				sMissCount++;
+			}
+			return icon;
+		}
+		
+		private static synchronized void putCachedIcon(IconKey key, Bitmap icon) {
+			Bitmap previous = sCache.put(key, icon);
+			if (previous != null) {
+				sCacheBytes -= getByteCount(previous);
+			}
+			sCacheBytes += getByteCount(icon);
+			trim(sCacheMaxBytes);
+		}
+		
+		private static int getByteCount(Bitmap bitmap) {
+			return bitmap.getRowBytes() * bitmap.getHeight();
+		}
+		
+		/**
+		 * Evict the least recently used icons until the cache fits in the given size
+		 * Evicted icons are not recycled, as they may still be displayed
+		 * @param maxBytes Size to reach, 0 to empty the cache
+		 */
+		public static synchronized void trim(int maxBytes) {
+			Iterator<Map.Entry<IconKey, Bitmap>> iterator = sCache.entrySet().iterator();
+			while (sCacheBytes > maxBytes && iterator.hasNext()) {
+				sCacheBytes -= getByteCount(iterator.next().getValue());
+				iterator.remove();
+			}
+		}
+		
+		/**
+		 * @param maxBytes Memory budget of the icon cache
+		 */
+		public static synchronized void setCacheMaxSize(int maxBytes) {
+			sCacheMaxBytes = maxBytes;
+			trim(maxBytes);
+		}
+		
+		/**
+		 * @return The memory currently used by the icon cache, in bytes
+		 */
+		public static synchronized int getCacheSize() {
+			return sCacheBytes;
+		}
+		
+		/**
+		 * @return The number of icons found in the cache instead of being prepared
+		 */
+		public static synchronized int getHitCount() {
+			return sHitCount;
+		}
+		
+		/**
+		 * @return The number of icons which had to be prepared
+		 */
+		public static synchronized int getMissCount() {
+			return sMissCount;
+		}
+		
+		/**
+		 * Receive an icon prepared in background, on the UI thread
+		 */
+		public interface OnIconReadyListener {
+			/**
+			 * @param icon The rounded icon, or null if it could not be prepared
+			 */
+			void onIconReady(Bitmap icon);
+		}
+		
+		private static synchronized void execute(Runnable task) {
+			if (sExecutor == null) {
+				sExecutor = Executors.newSingleThreadExecutor();
+				sMainHandler = new Handler(Looper.getMainLooper());
+			}
+			sExecutor.execute(task);
+		}
+		
+		/**
+		 * Get a prepared icon from the cache, or prepare it in background
+		 * @param key
+		 * @param listener Called when the icon is ready, immediately if it is in the cache
+		 */
+		public static void prepareIcon(final IconKey key, final OnIconReadyListener listener) {
+			Bitmap icon = getCachedIcon(key);
+			if (icon != null) {
+				listener.onIconReady(icon);
+				return;
+			}
+			
+			// The key does not keep the source bitmap alive, the task does
+			final Bitmap source = key.getSource();
+			execute(new Runnable() {
+				@Override
+				public void run() {
+					Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+					
+					// The same icon may have been requested twice
+					Bitmap prepared = peekCachedIcon(key);
+					if (prepared == null) {
+						prepared = key.createIcon(source);
+						if (prepared != null) {
+							putCachedIcon(key, prepared);
+						}
+					}
+					
+					final Bitmap icon = prepared;
+					sMainHandler.post(new Runnable() {
+						@Override
+						public void run() {
+							listener.onIconReady(icon);
+						}
+					});
+				}
+			});
+		}
+		
+		/**
+		 * Decode a drawable, downsampled to be close to the circle size
+		 * @param resources
+		 * @param id Identifier of a drawable
+		 * @return A bitmap resized and croped to be only a circle, or null
+		 */
+		public static Bitmap decodeRoundedBitmap(Resources resources, int id) {
+			int size = sBranchesRadius * 2;
+			
+			// Read the size only, to find how much the picture can be downsampled
+			BitmapFactory.Options options = new BitmapFactory.Options();
+			options.inJustDecodeBounds = true;
+			BitmapFactory.decodeResource(resources, id, options);
+			
+			int sampleSize = 1;
+			while (options.outWidth / (sampleSize * 2) >= size && options.outHeight / (sampleSize * 2) >= size) {
+				sampleSize *= 2;
+			}
+			
+			options.inJustDecodeBounds = false;
+			options.inSampleSize = sampleSize;
+			Bitmap decoded = BitmapFactory.decodeResource(resources, id, options);
+			if (decoded == null) {
+				return null;
+			}
+			
+			Bitmap output = createRoundedBitmap(decoded);
+			decoded.recycle();
+			return output;
+		}
+		
 		/**
 		 * @param input Any input bitmap
 		 * @return A bitmap resized and croped to be only a circle
 		 */
 		public static Bitmap createRoundedBitmap(Bitmap input) {
-			Bitmap output = Bitmap.createScaledBitmap(input, sBranchesRadius * 2, sBranchesRadius * 2, false);
-			Canvas maskCanvas = new Canvas(output);
+			int size = sBranchesRadius * 2;
+			Bitmap output = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+			Canvas canvas = new Canvas(output);
 			
-			Path p = new Path();
-			p.addCircle(sBranchesRadius, sBranchesRadius, sBranchesRadius, Path.Direction.CW);
+			// Fill a circle with the scaled input, instead of clipping it
+			BitmapShader shader = new BitmapShader(input, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+			Matrix matrix = new Matrix();
+			matrix.setScale((float) size / input.getWidth(), (float) size / input.getHeight());
+			shader.setLocalMatrix(matrix);
 			
-			maskCanvas.clipPath(p, Region.Op.DIFFERENCE);
-			maskCanvas.drawColor(0, PorterDuff.Mode.CLEAR);
+			Paint painter = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+			painter.setShader(shader);
+			canvas.drawCircle(sBranchesRadius, sBranchesRadius, sBranchesRadius, painter);
 			
 			return output;
 		}
 	}
-}
+}
\ No newline at end of file
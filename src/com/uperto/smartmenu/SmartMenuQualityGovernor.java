@@ -0,0 +1,139 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Choose the rendering quality of the menu from the recent frame times
+ * The quality goes down one tier when the frames of a window are slow on
+ * average, and goes back up one tier after several windows of fast frames.
+ * When the device saves power, the quality stays at the lowest tier.
+ */
+public class SmartMenuQualityGovernor {
+	// Everything is drawn
+	public static final int TIER_FULL = 0;
+	// The halo is a smaller flat circle, without gradient
+	public static final int TIER_REDUCED_HALO = 1;
+	// The branches are drawn without anti-aliasing
+	public static final int TIER_NO_LINE_ANTIALIAS = 2;
+	// The menu opens without animation
+	public static final int TIER_NO_ANIMATION = 3;
+
+	// Parameters, frame times are in microseconds
+	private int		mWindow = 8;
+	private long	mSlowFrameTime = 24000;
+	private long	mFastFrameTime = 12000;
+	private int		mRecoveryWindows = 4;
+
+	// State
+	private int		mTier = TIER_FULL;
+	private boolean	mPowerSaving = false;
+	private int		mFrames = 0;
+	private long	mTotal = 0;
+	private int		mFastWindows = 0;
+
+	/**
+	 * @return The current tier, one of the TIER constants
+	 */
+	public synchronized int getTier() {
+		return mPowerSaving ? TIER_NO_ANIMATION : mTier;
+	}
+
+	/**
+	 * Add the time of a frame
+	 * @param time Time of the frame, in microseconds
+	 * @return true if the tier changed
+	 */
+	public synchronized boolean addFrameTime(long time) {
+		mTotal += time;
+		mFrames++;
+		if (mFrames < mWindow) {
+			return false;
+		}
+
+		long average = mTotal / mFrames;
+		mTotal = 0;
+		mFrames = 0;
+
+		int previous = getTier();
+		if (average > mSlowFrameTime) {
+			mFastWindows = 0;
+			if (mTier < TIER_NO_ANIMATION) {
+				mTier++;
+			}
+		} else if (average < mFastFrameTime) {
+			// Only go back up once the frames are fast for a while
+			mFastWindows++;
+			if (mFastWindows >= mRecoveryWindows && mTier > TIER_FULL) {
+				mTier--;
+				mFastWindows = 0;
+			}
+		} else {
+			mFastWindows = 0;
+		}
+		return getTier() != previous;
+	}
+
+	/**
+	 * @param powerSaving true when the device saves power, for instance when the battery is low
+	 * @return true if the tier changed
+	 */
+	public synchronized boolean setPowerSaving(boolean powerSaving) {
+		int previous = getTier();
+		mPowerSaving = powerSaving;
+		return getTier() != previous;
+	}
+
+	/**
+	 * @return true when the device saves power
+	 */
+	public synchronized boolean isPowerSaving() {
+		return mPowerSaving;
+	}
+
+	/**
+	 * Come back to the full quality and forget the frame times
+	 */
+	public synchronized void reset() {
+		mTier = TIER_FULL;
+		mFrames = 0;
+		mTotal = 0;
+		mFastWindows = 0;
+	}
+
+	/**
+	 * @param window Number of frames averaged before changing the tier
+	 */
+	public synchronized void setWindow(int window) {
+		this.mWindow = Math.max(1, window);
+	}
+
+	/**
+	 * @param slowFrameTime Average frame time above which the quality goes down, in microseconds
+	 * @param fastFrameTime Average frame time below which the quality goes back up, in microseconds
+	 */
+	public synchronized void setFrameTimes(long slowFrameTime, long fastFrameTime) {
+		this.mSlowFrameTime = slowFrameTime;
+		this.mFastFrameTime = fastFrameTime;
+	}
+
+	/**
+	 * @param recoveryWindows Number of consecutive fast windows needed to go back up one tier
+	 */
+	public synchronized void setRecoveryWindows(int recoveryWindows) {
+		this.mRecoveryWindows = Math.max(1, recoveryWindows);
+	}
+}
@@ -0,0 +1,167 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.PixelFormat;
+import android.graphics.PorterDuff;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+/**
+ * Surface on which the menu, its animation and the halo are drawn by a
+ * dedicated thread, so that a busy main thread does not make them stutter
+ * The main thread still receives the touch events in the circle view below,
+ * and only asks for a new frame once the touch state is updated.
+ */
+class SmartMenuRenderSurface extends SurfaceView implements SurfaceHolder.Callback {
+	// Minimal time between two frames of the animation, in milliseconds
+	private static final long FRAME_INTERVAL = 16;
+
+	private final SmartMenuOverlayView.SmartMenuCircleView	mCircleView;
+
+	// Guards the thread state below
+	private final Object	mSignal = new Object();
+	private RenderThread	mThread = null;
+	private boolean			mFrameRequested = false;
+
+	SmartMenuRenderSurface(Context context, SmartMenuOverlayView.SmartMenuCircleView circleView) {
+		super(context);
+		mCircleView = circleView;
+
+		// Only the menu is drawn here, the background is drawn by the circle view
+		setZOrderOnTop(true);
+		getHolder().setFormat(PixelFormat.TRANSLUCENT);
+		getHolder().addCallback(this);
+
+		// Touch events go through, to the circle view
+		setFocusable(false);
+		setClickable(false);
+	}
+
+	/**
+	 * Ask the render thread to draw a new frame
+	 * Can be called from any thread, several requests made before the
+	 * frame is drawn only cause one frame
+	 */
+	void requestFrame() {
+		synchronized (mSignal) {
+			mFrameRequested = true;
+			mSignal.notify();
+		}
+	}
+
+	@Override
+	public void surfaceCreated(SurfaceHolder holder) {
+		synchronized (mSignal) {
+			mThread = new RenderThread(holder);
+			mFrameRequested = true;
+		}
+		mThread.start();
+	}
+
+	@Override
+	public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+		requestFrame();
+	}
+
+	@Override
+	public void surfaceDestroyed(SurfaceHolder holder) {
+		RenderThread thread;
+		synchronized (mSignal) {
+			thread = mThread;
+			mThread = null;
+			mSignal.notify();
+		}
+
+		// The surface must not be used once this method returns
+		if (thread != null) {
+			boolean interrupted = false;
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private class RenderThread extends Thread {
+		private final SurfaceHolder	mHolder;
+
+		RenderThread(SurfaceHolder holder) {
+			super("SmartMenuRender");
+			mHolder = holder;
+		}
+
+		/**
+		 * @return true until the surface is destroyed
+		 */
+		private boolean isRunning() {
+			return mThread == this;
+		}
+
+		@Override
+		public void run() {
+			Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+
+			while (true) {
+				synchronized (mSignal) {
+					while (isRunning() && !mFrameRequested) {
+						try {
+							mSignal.wait();
+						} catch (InterruptedException e) {
+							// Check the state again
+						}
+					}
+					if (!isRunning()) {
+						return;
+					}
+					mFrameRequested = false;
+				}
+
+				long start = SystemClock.uptimeMillis();
+				boolean animating = false;
+				Canvas canvas = mHolder.lockCanvas();
+				if (canvas != null) {
+					try {
+						canvas.drawColor(0, PorterDuff.Mode.CLEAR);
+						animating = mCircleView.drawFrame(canvas);
+					} finally {
+						mHolder.unlockCanvasAndPost(canvas);
+					}
+				}
+
+				// Keep the animation going at a regular pace
+				if (animating) {
+					long wait = FRAME_INTERVAL - (SystemClock.uptimeMillis() - start);
+					if (wait > 0) {
+						SystemClock.sleep(wait);
+					}
+					requestFrame();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Predict where the finger will be in a short time, from its recent velocity
+ * Used to give some feedback on the item the user is moving to before the
+ * finger reaches it.
+ *
+ * Touch samples are given with addSample(), then predict() tells if the
+ * finger moves fast enough to extrapolate its position.
+ */
+public class SmartMenuTargetPredictor {
+	// Number of samples kept
+	private static final int SAMPLES = 8;
+	// The velocity is measured over the samples of this last period, in milliseconds
+	private static final long VELOCITY_SPAN = 60;
+
+	// Parameters
+	private long	mWindow = 0;
+	private float	mMinSpeed = 0.3f;
+
+	// Last samples, in a ring buffer
+	private final float[]	mX = new float[SAMPLES];
+	private final float[]	mY = new float[SAMPLES];
+	private final long[]	mTime = new long[SAMPLES];
+	private int				mCount;
+	private int				mLast;
+
+	// Result of the last prediction
+	private float	mVelocityX, mVelocityY;
+	private float	mPredictedX, mPredictedY;
+
+	public SmartMenuTargetPredictor() {
+		reset();
+	}
+
+	/**
+	 * Forget the samples, must be called when a new touch starts
+	 */
+	public void reset() {
+		mCount = 0;
+		mLast = -1;
+		mVelocityX = mVelocityY = 0;
+	}
+
+	/**
+	 * Add a position of the finger
+	 * @param x
+	 * @param y
+	 * @param time Time of the sample, in milliseconds
+	 */
+	public void addSample(float x, float y, long time) {
+		mLast = (mLast + 1) % SAMPLES;
+		mX[mLast] = x;
+		mY[mLast] = y;
+		mTime[mLast] = time;
+		if (mCount < SAMPLES) {
+			mCount++;
+		}
+	}
+
+	/**
+	 * Extrapolate the position of the finger at the end of the prediction window
+	 * @return true if a position was predicted, see getPredictedX() and getPredictedY()
+	 */
+	public boolean predict() {
+		if (mWindow <= 0 || mCount < 2) {
+			return false;
+		}
+
+		// Oldest sample of the velocity span
+		long now = mTime[mLast];
+		int oldest = mLast;
+		for (int i=1; i<mCount; i++) {
+			int index = (mLast - i + SAMPLES) % SAMPLES;
+			if (now - mTime[index] > VELOCITY_SPAN) {
+				break;
+			}
+			oldest = index;
+		}
+
+		long elapsed = now - mTime[oldest];
+		if (elapsed <= 0) {
+			return false;
+		}
+		mVelocityX = (mX[mLast] - mX[oldest]) / elapsed;
+		mVelocityY = (mY[mLast] - mY[oldest]) / elapsed;
+		if (mVelocityX * mVelocityX + mVelocityY * mVelocityY < mMinSpeed * mMinSpeed) {
+			return false;
+		}
+
+		mPredictedX = mX[mLast] + mVelocityX * mWindow;
+		mPredictedY = mY[mLast] + mVelocityY * mWindow;
+		return true;
+	}
+
+	/**
+	 * @return The predicted X coordinate
+	 */
+	public float getPredictedX() {
+		return mPredictedX;
+	}
+
+	/**
+	 * @return The predicted Y coordinate
+	 */
+	public float getPredictedY() {
+		return mPredictedY;
+	}
+
+	/**
+	 * @return The X velocity measured by the last prediction, in pixels per millisecond
+	 */
+	public float getVelocityX() {
+		return mVelocityX;
+	}
+
+	/**
+	 * @return The Y velocity measured by the last prediction, in pixels per millisecond
+	 */
+	public float getVelocityY() {
+		return mVelocityY;
+	}
+
+	/**
+	 * @return The prediction window, in milliseconds
+	 */
+	public long getWindow() {
+		return mWindow;
+	}
+
+	/**
+	 * @param window How far in the future the position is predicted, in milliseconds,
+	 * 0 to disable the prediction
+	 */
+	public void setWindow(long window) {
+		this.mWindow = window;
+	}
+
+	/**
+	 * @param minSpeed minimal speed of the finger to predict its position, in pixels per millisecond
+	 */
+	public void setMinSpeed(float minSpeed) {
+		this.mMinSpeed = minSpeed;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.content;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+
+/**
+ * Shadow of android.content.Context
+ * Broadcasts are delivered immediately on the calling thread.
+ */
+public abstract class Context {
+	private Resources	mResources;
+	private final ArrayList<BroadcastReceiver>	mReceivers = new ArrayList<BroadcastReceiver>();
+	private final ArrayList<IntentFilter>		mFilters = new ArrayList<IntentFilter>();
+	private final HashMap<String, Intent>		mStickyIntents = new HashMap<String, Intent>();
+
+	public Resources getResources() {
+		if (mResources == null) {
+			mResources = new Resources();
+		}
+		return mResources;
+	}
+
+	public Context getApplicationContext() {
+		return this;
+	}
+
+	public final TypedArray obtainStyledAttributes(AttributeSet set, int[] attrs) {
+		return new TypedArray();
+	}
+
+	public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+		if (receiver != null) {
+			mReceivers.add(receiver);
+			mFilters.add(filter);
+		}
+		for (int i=0; i<filter.countActions(); i++) {
+			Intent sticky = mStickyIntents.get(filter.getAction(i));
+			if (sticky != null) {
+				return sticky;
+			}
+		}
+		return null;
+	}
+
+	public void unregisterReceiver(BroadcastReceiver receiver) {
+		int index = mReceivers.indexOf(receiver);
+		if (index < 0) {
+			throw new IllegalArgumentException("Receiver not registered: " + receiver);
+		}
+		mReceivers.remove(index);
+		mFilters.remove(index);
+	}
+
+	public void sendBroadcast(Intent intent) {
+		for (int i=0; i<mReceivers.size(); i++) {
+			if (mFilters.get(i).hasAction(intent.getAction())) {
+				mReceivers.get(i).onReceive(this, intent);
+			}
+		}
+	}
+
+	public void sendStickyBroadcast(Intent intent) {
+		mStickyIntents.put(intent.getAction(), intent);
+		sendBroadcast(intent);
+	}
+
+	/**
+	 * Shadow only
+	 * @return The number of registered receivers
+	 */
+	public int getReceiverCount() {
+		return mReceivers.size();
+	}
+}
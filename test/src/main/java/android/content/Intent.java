@@ -0,0 +1,49 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.content;
+
+import java.util.HashMap;
+
+/**
+ * Shadow of android.content.Intent, with integer extras only
+ */
+public class Intent {
+	public static final String ACTION_BATTERY_CHANGED = "android.intent.action.BATTERY_CHANGED";
+	public static final String ACTION_BATTERY_LOW = "android.intent.action.BATTERY_LOW";
+	public static final String ACTION_BATTERY_OKAY = "android.intent.action.BATTERY_OKAY";
+
+	private final String					mAction;
+	private final HashMap<String, Integer>	mExtras = new HashMap<String, Integer>();
+
+	public Intent(String action) {
+		this.mAction = action;
+	}
+
+	public String getAction() {
+		return mAction;
+	}
+
+	public Intent putExtra(String name, int value) {
+		mExtras.put(name, value);
+		return this;
+	}
+
+	public int getIntExtra(String name, int defaultValue) {
+		Integer value = mExtras.get(name);
+		return (value != null) ? value : defaultValue;
+	}
+}
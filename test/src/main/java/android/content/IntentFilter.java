@@ -0,0 +1,49 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.content;
+
+import java.util.ArrayList;
+
+/**
+ * Shadow of android.content.IntentFilter, matching on the action only
+ */
+public class IntentFilter {
+	private final ArrayList<String> mActions = new ArrayList<String>();
+
+	public IntentFilter() {
+	}
+
+	public IntentFilter(String action) {
+		addAction(action);
+	}
+
+	public final void addAction(String action) {
+		mActions.add(action);
+	}
+
+	public final int countActions() {
+		return mActions.size();
+	}
+
+	public final String getAction(int index) {
+		return mActions.get(index);
+	}
+
+	public final boolean hasAction(String action) {
+		return mActions.contains(action);
+	}
+}
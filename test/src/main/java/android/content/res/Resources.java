@@ -0,0 +1,41 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.content.res;
+
+/**
+ * Shadow of android.content.res.Resources, there are no resources
+ */
+public class Resources {
+	public static class NotFoundException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public NotFoundException() {
+		}
+
+		public NotFoundException(String name) {
+			super(name);
+		}
+	}
+
+	public String getString(int id) {
+		throw new NotFoundException("String resource ID #0x" + Integer.toHexString(id));
+	}
+
+	public XmlResourceParser getXml(int id) {
+		throw new NotFoundException("Resource ID #0x" + Integer.toHexString(id));
+	}
+}
@@ -0,0 +1,98 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.gesture;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.widget.FrameLayout;
+
+/**
+ * Shadow of android.gesture.GestureOverlayView
+ * Gestures are not tracked, the touch events go to the children.
+ */
+public class GestureOverlayView extends FrameLayout {
+	public interface OnGesturePerformedListener {
+		void onGesturePerformed(GestureOverlayView overlay, Gesture gesture);
+	}
+
+	public interface OnGestureListener {
+		void onGestureStarted(GestureOverlayView overlay, MotionEvent event);
+
+		void onGesture(GestureOverlayView overlay, MotionEvent event);
+
+		void onGestureEnded(GestureOverlayView overlay, MotionEvent event);
+
+		void onGestureCancelled(GestureOverlayView overlay, MotionEvent event);
+	}
+
+	private final ArrayList<OnGesturePerformedListener>	mPerformedListeners = new ArrayList<OnGesturePerformedListener>();
+	private final ArrayList<OnGestureListener>			mGestureListeners = new ArrayList<OnGestureListener>();
+	private boolean	mGestureVisible = true;
+	private boolean	mInterceptEvents = true;
+
+	public GestureOverlayView(Context context) {
+		super(context);
+	}
+
+	public GestureOverlayView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+	}
+
+	public void addOnGesturePerformedListener(OnGesturePerformedListener listener) {
+		mPerformedListeners.add(listener);
+	}
+
+	public void addOnGestureListener(OnGestureListener listener) {
+		mGestureListeners.add(listener);
+	}
+
+	public boolean isGestureVisible() {
+		return mGestureVisible;
+	}
+
+	public void setGestureVisible(boolean visible) {
+		this.mGestureVisible = visible;
+	}
+
+	public boolean isEventsInterceptionEnabled() {
+		return mInterceptEvents;
+	}
+
+	public void setEventsInterceptionEnabled(boolean enabled) {
+		this.mInterceptEvents = enabled;
+	}
+
+	public void clear(boolean animated) {
+		invalidate();
+	}
+
+	public void cancelGesture() {
+	}
+
+	/**
+	 * Shadow only: give a performed gesture to the listeners
+	 * @param gesture
+	 */
+	public void performGesture(Gesture gesture) {
+		for (int i=0; i<mPerformedListeners.size(); i++) {
+			mPerformedListeners.get(i).onGesturePerformed(this, gesture);
+		}
+	}
+}
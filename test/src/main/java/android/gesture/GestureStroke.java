@@ -0,0 +1,49 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.gesture;
+
+import java.util.ArrayList;
+
+import android.graphics.RectF;
+
+/**
+ * Shadow of android.gesture.GestureStroke
+ */
+public class GestureStroke {
+	public final RectF boundingBox;
+	public final float length;
+	public final float[] points;
+
+	public GestureStroke(ArrayList<GesturePoint> list) {
+		points = new float[list.size() * 2];
+		boundingBox = new RectF(Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+		float total = 0;
+		for (int i=0; i<list.size(); i++) {
+			GesturePoint p = list.get(i);
+			points[2 * i] = p.x;
+			points[2 * i + 1] = p.y;
+			boundingBox.set(Math.min(boundingBox.left, p.x), Math.min(boundingBox.top, p.y),
+					Math.max(boundingBox.right, p.x), Math.max(boundingBox.bottom, p.y));
+			if (i > 0) {
+				float dx = p.x - points[2 * i - 2];
+				float dy = p.y - points[2 * i - 1];
+				total += (float) Math.sqrt(dx * dx + dy * dy);
+			}
+		}
+		length = total;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+/**
+ * Shadow of android.graphics.Bitmap: only the size is kept, there are no pixels
+ */
+public final class Bitmap {
+	public enum Config { ALPHA_8, RGB_565, ARGB_4444, ARGB_8888 }
+
+	private final int		mWidth;
+	private final int		mHeight;
+	private final Config	mConfig;
+	private boolean			mRecycled = false;
+
+	private Bitmap(int width, int height, Config config) {
+		this.mWidth = width;
+		this.mHeight = height;
+		this.mConfig = config;
+	}
+
+	public static Bitmap createBitmap(int width, int height, Config config) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("width and height must be > 0");
+		}
+		return new Bitmap(width, height, config);
+	}
+
+	public static Bitmap createScaledBitmap(Bitmap src, int width, int height, boolean filter) {
+		return createBitmap(width, height, src.mConfig);
+	}
+
+	public int getWidth() {
+		return mWidth;
+	}
+
+	public int getHeight() {
+		return mHeight;
+	}
+
+	public Config getConfig() {
+		return mConfig;
+	}
+
+	public int getRowBytes() {
+		return mWidth * ((mConfig == Config.ARGB_8888) ? 4 : (mConfig == Config.ALPHA_8) ? 1 : 2);
+	}
+
+	public void eraseColor(int color) {
+		checkRecycled();
+	}
+
+	public void recycle() {
+		mRecycled = true;
+	}
+
+	public boolean isRecycled() {
+		return mRecycled;
+	}
+
+	void checkRecycled() {
+		if (mRecycled) {
+			throw new IllegalStateException("Can't use a recycled bitmap");
+		}
+	}
+}
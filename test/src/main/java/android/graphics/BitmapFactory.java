@@ -0,0 +1,40 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+import android.content.res.Resources;
+
+/**
+ * Shadow of android.graphics.BitmapFactory: there are no images to decode
+ */
+public class BitmapFactory {
+	public static class Options {
+		public boolean inJustDecodeBounds;
+		public int inSampleSize;
+		public int outWidth;
+		public int outHeight;
+		public Bitmap.Config inPreferredConfig;
+	}
+
+	public static Bitmap decodeResource(Resources resources, int id, Options options) {
+		return null;
+	}
+
+	public static Bitmap decodeResource(Resources resources, int id) {
+		return null;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+/**
+ * Shadow of android.graphics.Canvas
+ * Nothing is drawn and nothing is allocated, only the number of drawing
+ * operations is counted, see getDrawCount().
+ */
+public class Canvas {
+	private Bitmap	mBitmap;
+	private int		mSaveCount = 1;
+	private int		mDrawCount = 0;
+
+	public Canvas() {
+	}
+
+	public Canvas(Bitmap bitmap) {
+		bitmap.checkRecycled();
+		this.mBitmap = bitmap;
+	}
+
+	public void setBitmap(Bitmap bitmap) {
+		this.mBitmap = bitmap;
+	}
+
+	public int getWidth() {
+		return (mBitmap != null) ? mBitmap.getWidth() : 0;
+	}
+
+	public int getHeight() {
+		return (mBitmap != null) ? mBitmap.getHeight() : 0;
+	}
+
+	public int save() {
+		return mSaveCount++;
+	}
+
+	public void restore() {
+		if (mSaveCount <= 1) {
+			throw new IllegalStateException("Underflow in restore");
+		}
+		mSaveCount--;
+	}
+
+	public int getSaveCount() {
+		return mSaveCount;
+	}
+
+	public void translate(float dx, float dy) {
+	}
+
+	public void drawColor(int color) {
+		mDrawCount++;
+	}
+
+	public void drawColor(int color, PorterDuff.Mode mode) {
+		mDrawCount++;
+	}
+
+	public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+		mDrawCount++;
+	}
+
+	public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+		mDrawCount++;
+	}
+
+	public void drawLines(float[] points, int offset, int count, Paint paint) {
+		if (offset < 0 || count < 0 || offset + count > points.length) {
+			throw new ArrayIndexOutOfBoundsException();
+		}
+		mDrawCount++;
+	}
+
+	public void drawLines(float[] points, Paint paint) {
+		drawLines(points, 0, points.length, paint);
+	}
+
+	public void drawCircle(float cx, float cy, float radius, Paint paint) {
+		mDrawCount++;
+	}
+
+	public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+		mDrawCount++;
+	}
+
+	public void drawPath(Path path, Paint paint) {
+		mDrawCount++;
+	}
+
+	public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+		bitmap.checkRecycled();
+		mDrawCount++;
+	}
+
+	public void drawText(String text, float x, float y, Paint paint) {
+		mDrawCount++;
+	}
+
+	public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+		if (start < 0 || end > text.length() || start > end) {
+			throw new IndexOutOfBoundsException();
+		}
+		mDrawCount++;
+	}
+
+	/**
+	 * Shadow only: number of drawing operations done on this canvas
+	 */
+	public int getDrawCount() {
+		return mDrawCount;
+	}
+}
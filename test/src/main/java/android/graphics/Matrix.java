@@ -0,0 +1,37 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+/**
+ * Shadow of android.graphics.Matrix, only scales are kept
+ */
+public class Matrix {
+	private float mScaleX = 1, mScaleY = 1;
+
+	public void reset() {
+		mScaleX = mScaleY = 1;
+	}
+
+	public void setScale(float scaleX, float scaleY) {
+		this.mScaleX = scaleX;
+		this.mScaleY = scaleY;
+	}
+
+	public boolean isIdentity() {
+		return mScaleX == 1 && mScaleY == 1;
+	}
+}
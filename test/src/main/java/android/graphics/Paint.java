@@ -0,0 +1,150 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+/**
+ * Shadow of android.graphics.Paint, the attributes are only stored
+ */
+public class Paint {
+	public static final int ANTI_ALIAS_FLAG = 0x01;
+	public static final int FILTER_BITMAP_FLAG = 0x02;
+	public static final int DITHER_FLAG = 0x04;
+
+	public enum Style { FILL, STROKE, FILL_AND_STROKE }
+	public enum Align { LEFT, CENTER, RIGHT }
+
+	private int		mFlags;
+	private Style	mStyle = Style.FILL;
+	private Align	mAlign = Align.LEFT;
+	private int		mColor = Color.BLACK;
+	private float	mStrokeWidth = 0;
+	private float	mTextSize = 12;
+	private Shader	mShader;
+
+	public Paint() {
+	}
+
+	public Paint(int flags) {
+		this.mFlags = flags;
+	}
+
+	public Paint(Paint paint) {
+		set(paint);
+	}
+
+	public void set(Paint src) {
+		mFlags = src.mFlags;
+		mStyle = src.mStyle;
+		mAlign = src.mAlign;
+		mColor = src.mColor;
+		mStrokeWidth = src.mStrokeWidth;
+		mTextSize = src.mTextSize;
+		mShader = src.mShader;
+	}
+
+	public int getFlags() {
+		return mFlags;
+	}
+
+	public void setFlags(int flags) {
+		this.mFlags = flags;
+	}
+
+	public boolean isAntiAlias() {
+		return (mFlags & ANTI_ALIAS_FLAG) != 0;
+	}
+
+	public void setAntiAlias(boolean antiAlias) {
+		mFlags = antiAlias ? (mFlags | ANTI_ALIAS_FLAG) : (mFlags & ~ANTI_ALIAS_FLAG);
+	}
+
+	public void setFilterBitmap(boolean filter) {
+		mFlags = filter ? (mFlags | FILTER_BITMAP_FLAG) : (mFlags & ~FILTER_BITMAP_FLAG);
+	}
+
+	public void setDither(boolean dither) {
+		mFlags = dither ? (mFlags | DITHER_FLAG) : (mFlags & ~DITHER_FLAG);
+	}
+
+	public Style getStyle() {
+		return mStyle;
+	}
+
+	public void setStyle(Style style) {
+		this.mStyle = style;
+	}
+
+	public Align getTextAlign() {
+		return mAlign;
+	}
+
+	public void setTextAlign(Align align) {
+		this.mAlign = align;
+	}
+
+	public int getColor() {
+		return mColor;
+	}
+
+	public void setColor(int color) {
+		this.mColor = color;
+	}
+
+	public int getAlpha() {
+		return mColor >>> 24;
+	}
+
+	public void setAlpha(int alpha) {
+		mColor = (alpha << 24) | (mColor & 0xffffff);
+	}
+
+	public float getStrokeWidth() {
+		return mStrokeWidth;
+	}
+
+	public void setStrokeWidth(float width) {
+		this.mStrokeWidth = width;
+	}
+
+	public float getTextSize() {
+		return mTextSize;
+	}
+
+	public void setTextSize(float textSize) {
+		this.mTextSize = textSize;
+	}
+
+	public Shader getShader() {
+		return mShader;
+	}
+
+	public Shader setShader(Shader shader) {
+		this.mShader = shader;
+		return shader;
+	}
+
+	/**
+	 * All the characters are as wide as half the text size
+	 */
+	public float measureText(String text) {
+		return text.length() * mTextSize / 2;
+	}
+
+	public float measureText(CharSequence text, int start, int end) {
+		return (end - start) * mTextSize / 2;
+	}
+}
@@ -0,0 +1,31 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+/**
+ * Shadow of android.graphics.RadialGradient
+ */
+public class RadialGradient extends Shader {
+	public RadialGradient(float x, float y, float radius, int[] colors, float[] positions, TileMode tile) {
+		if (radius <= 0) {
+			throw new IllegalArgumentException("radius must be > 0");
+		}
+		if (colors.length < 2 || (positions != null && positions.length != colors.length)) {
+			throw new IllegalArgumentException("wrong number of colors or positions");
+		}
+	}
+}
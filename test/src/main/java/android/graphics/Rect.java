@@ -0,0 +1,75 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+/**
+ * Shadow of android.graphics.Rect
+ */
+public final class Rect {
+	public int left;
+	public int top;
+	public int right;
+	public int bottom;
+
+	public Rect() {
+	}
+
+	public Rect(int left, int top, int right, int bottom) {
+		set(left, top, right, bottom);
+	}
+
+	public void set(int left, int top, int right, int bottom) {
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+
+	public void setEmpty() {
+		left = top = right = bottom = 0;
+	}
+
+	public boolean isEmpty() {
+		return left >= right || top >= bottom;
+	}
+
+	public int width() {
+		return right - left;
+	}
+
+	public int height() {
+		return bottom - top;
+	}
+
+	public void union(int left, int top, int right, int bottom) {
+		if (left >= right || top >= bottom) {
+			return;
+		}
+		if (isEmpty()) {
+			set(left, top, right, bottom);
+		} else {
+			if (left < this.left) this.left = left;
+			if (top < this.top) this.top = top;
+			if (right > this.right) this.right = right;
+			if (bottom > this.bottom) this.bottom = bottom;
+		}
+	}
+
+	public void union(Rect r) {
+		union(r.left, r.top, r.right, r.bottom);
+	}
+}
@@ -0,0 +1,49 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+/**
+ * Shadow of android.graphics.RectF
+ */
+public class RectF {
+	public float left;
+	public float top;
+	public float right;
+	public float bottom;
+
+	public RectF() {
+	}
+
+	public RectF(float left, float top, float right, float bottom) {
+		set(left, top, right, bottom);
+	}
+
+	public void set(float left, float top, float right, float bottom) {
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+
+	public final float width() {
+		return right - left;
+	}
+
+	public final float height() {
+		return bottom - top;
+	}
+}
@@ -0,0 +1,34 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.graphics;
+
+/**
+ * Shadow of android.graphics.Shader
+ */
+public class Shader {
+	public enum TileMode { CLAMP, REPEAT, MIRROR }
+
+	private Matrix mLocalMatrix;
+
+	public void setLocalMatrix(Matrix matrix) {
+		this.mLocalMatrix = matrix;
+	}
+
+	public boolean getLocalMatrix(Matrix matrix) {
+		return mLocalMatrix != null;
+	}
+}
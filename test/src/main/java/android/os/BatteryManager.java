@@ -0,0 +1,26 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.os;
+
+/**
+ * Shadow of android.os.BatteryManager
+ */
+public class BatteryManager {
+	public static final String EXTRA_LEVEL = "level";
+	public static final String EXTRA_SCALE = "scale";
+	public static final String EXTRA_PLUGGED = "plugged";
+}
@@ -0,0 +1,58 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.os;
+
+/**
+ * Shadow of android.os.Handler, posting runnables only
+ */
+public class Handler {
+	private final Looper mLooper;
+
+	public Handler() {
+		mLooper = Looper.myLooper();
+		if (mLooper == null) {
+			throw new RuntimeException("Can't create handler inside thread that has not called Looper.prepare()");
+		}
+	}
+
+	public Handler(Looper looper) {
+		this.mLooper = looper;
+	}
+
+	public final Looper getLooper() {
+		return mLooper;
+	}
+
+	public final boolean post(Runnable r) {
+		mLooper.enqueue(r, SystemClock.uptimeMillis());
+		return true;
+	}
+
+	public final boolean postDelayed(Runnable r, long delayMillis) {
+		mLooper.enqueue(r, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+		return true;
+	}
+
+	public final boolean postAtTime(Runnable r, long uptimeMillis) {
+		mLooper.enqueue(r, uptimeMillis);
+		return true;
+	}
+
+	public final void removeCallbacks(Runnable r) {
+		mLooper.remove(r);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.os;
+
+import java.util.ArrayList;
+
+/**
+ * Shadow of android.os.Looper, only the main looper exists
+ * Tasks are not run by a loop but by runPendingTasks(), called by the test
+ * on the thread which called prepareMainLooper().
+ */
+public final class Looper {
+	private static final Looper sMainLooper = new Looper();
+
+	// Tasks posted to the looper, sorted by time
+	private final ArrayList<Runnable>	mTasks = new ArrayList<Runnable>();
+	private final ArrayList<Long>		mTimes = new ArrayList<Long>();
+	private volatile Thread				mThread;
+
+	private Looper() {
+	}
+
+	/**
+	 * Make the current thread the main thread
+	 * Unlike Android, can be called again by another test
+	 */
+	public static void prepareMainLooper() {
+		synchronized (sMainLooper) {
+			sMainLooper.mThread = Thread.currentThread();
+			sMainLooper.mTasks.clear();
+			sMainLooper.mTimes.clear();
+		}
+	}
+
+	public static Looper getMainLooper() {
+		return sMainLooper;
+	}
+
+	public static Looper myLooper() {
+		return (sMainLooper.mThread == Thread.currentThread()) ? sMainLooper : null;
+	}
+
+	public Thread getThread() {
+		return mThread;
+	}
+
+	synchronized void enqueue(Runnable task, long when) {
+		int index = mTimes.size();
+		while (index > 0 && mTimes.get(index - 1) > when) {
+			index--;
+		}
+		mTasks.add(index, task);
+		mTimes.add(index, when);
+	}
+
+	synchronized void remove(Runnable task) {
+		for (int i=mTasks.size() - 1; i>=0; i--) {
+			if (mTasks.get(i) == task) {
+				mTasks.remove(i);
+				mTimes.remove(i);
+			}
+		}
+	}
+
+	/**
+	 * Shadow only: run the tasks which are due, including the ones they post
+	 * @return The number of tasks run
+	 */
+	public int runPendingTasks() {
+		if (Thread.currentThread() != mThread) {
+			throw new IllegalStateException("Not on the main thread");
+		}
+		int count = 0;
+		while (true) {
+			Runnable task;
+			synchronized (this) {
+				if (mTasks.isEmpty() || mTimes.get(0) > SystemClock.uptimeMillis()) {
+					return count;
+				}
+				task = mTasks.remove(0);
+				mTimes.remove(0);
+			}
+			task.run();
+			count++;
+		}
+	}
+
+	/**
+	 * Shadow only
+	 * @return The number of tasks waiting, due or not
+	 */
+	public synchronized int getPendingTaskCount() {
+		return mTasks.size();
+	}
+}
@@ -0,0 +1,53 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.os;
+
+/**
+ * Shadow of android.os.SystemClock
+ * The uptime is a fake clock which only moves when advanceUptimeMillis() is
+ * called, so that animations are driven frame by frame.
+ */
+public final class SystemClock {
+	private static volatile long sUptime = 0;
+
+	private SystemClock() {
+	}
+
+	public static long uptimeMillis() {
+		return sUptime;
+	}
+
+	public static long elapsedRealtime() {
+		return sUptime;
+	}
+
+	public static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Shadow only: move the fake clock forward
+	 * @param ms
+	 */
+	public static synchronized void advanceUptimeMillis(long ms) {
+		sUptime += ms;
+	}
+}
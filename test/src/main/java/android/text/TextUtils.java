@@ -0,0 +1,44 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.text;
+
+/**
+ * Shadow of android.text.TextUtils
+ */
+public class TextUtils {
+	public enum TruncateAt { START, MIDDLE, END, MARQUEE }
+
+	private static final String ELLIPSIS = "\u2026";
+
+	public static boolean isEmpty(CharSequence str) {
+		return str == null || str.length() == 0;
+	}
+
+	/**
+	 * Only TruncateAt.END is supported
+	 */
+	public static CharSequence ellipsize(CharSequence text, TextPaint paint, float avail, TruncateAt where) {
+		if (paint.measureText(text, 0, text.length()) <= avail) {
+			return text;
+		}
+		int length = text.length();
+		while (length > 0 && paint.measureText(text, 0, length) + paint.measureText(ELLIPSIS) > avail) {
+			length--;
+		}
+		return (length > 0) ? text.subSequence(0, length) + ELLIPSIS : "";
+	}
+}
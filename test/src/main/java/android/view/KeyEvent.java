@@ -0,0 +1,42 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.view;
+
+/**
+ * Shadow of android.view.KeyEvent
+ */
+public class KeyEvent {
+	public static final int ACTION_DOWN = 0;
+	public static final int ACTION_UP = 1;
+	public static final int KEYCODE_BACK = 4;
+
+	private final int mAction;
+	private final int mKeyCode;
+
+	public KeyEvent(int action, int code) {
+		this.mAction = action;
+		this.mKeyCode = code;
+	}
+
+	public final int getAction() {
+		return mAction;
+	}
+
+	public final int getKeyCode() {
+		return mKeyCode;
+	}
+}
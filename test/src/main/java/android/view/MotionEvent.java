@@ -0,0 +1,137 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.view;
+
+/**
+ * Shadow of android.view.MotionEvent, single pointer
+ * Events are built before being dispatched, and can be moved with
+ * setLocation(), so that dispatching them allocates nothing.
+ */
+public final class MotionEvent {
+	public static final int ACTION_DOWN = 0;
+	public static final int ACTION_UP = 1;
+	public static final int ACTION_MOVE = 2;
+	public static final int ACTION_CANCEL = 3;
+
+	private long	mDownTime;
+	private long	mEventTime;
+	private int		mAction;
+	private float	mX, mY;
+
+	// Points batched before the current one
+	private float[]	mHistoricalX = new float[0];
+	private float[]	mHistoricalY = new float[0];
+	private long[]	mHistoricalTime = new long[0];
+	private int		mHistorySize = 0;
+
+	private MotionEvent() {
+	}
+
+	public static MotionEvent obtain(long downTime, long eventTime, int action, float x, float y, int metaState) {
+		MotionEvent event = new MotionEvent();
+		event.mDownTime = downTime;
+		event.mEventTime = eventTime;
+		event.mAction = action;
+		event.mX = x;
+		event.mY = y;
+		return event;
+	}
+
+	/**
+	 * Move the current point to the history, and use a new current point
+	 */
+	public void addBatch(long eventTime, float x, float y, float pressure, float size, int metaState) {
+		if (mHistorySize == mHistoricalX.length) {
+			int capacity = mHistorySize * 2 + 4;
+			mHistoricalX = copyOf(mHistoricalX, capacity);
+			mHistoricalY = copyOf(mHistoricalY, capacity);
+			long[] times = new long[capacity];
+			System.arraycopy(mHistoricalTime, 0, times, 0, mHistorySize);
+			mHistoricalTime = times;
+		}
+		mHistoricalX[mHistorySize] = mX;
+		mHistoricalY[mHistorySize] = mY;
+		mHistoricalTime[mHistorySize] = mEventTime;
+		mHistorySize++;
+		mEventTime = eventTime;
+		mX = x;
+		mY = y;
+	}
+
+	private static float[] copyOf(float[] array, int capacity) {
+		float[] copy = new float[capacity];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+
+	public void recycle() {
+	}
+
+	public final int getAction() {
+		return mAction;
+	}
+
+	public final void setAction(int action) {
+		this.mAction = action;
+	}
+
+	public final long getDownTime() {
+		return mDownTime;
+	}
+
+	public final long getEventTime() {
+		return mEventTime;
+	}
+
+	public final float getX() {
+		return mX;
+	}
+
+	public final float getY() {
+		return mY;
+	}
+
+	public final void setLocation(float x, float y) {
+		this.mX = x;
+		this.mY = y;
+	}
+
+	public final int getHistorySize() {
+		return mHistorySize;
+	}
+
+	public final float getHistoricalX(int pos) {
+		checkHistory(pos);
+		return mHistoricalX[pos];
+	}
+
+	public final float getHistoricalY(int pos) {
+		checkHistory(pos);
+		return mHistoricalY[pos];
+	}
+
+	public final long getHistoricalEventTime(int pos) {
+		checkHistory(pos);
+		return mHistoricalTime[pos];
+	}
+
+	private void checkHistory(int pos) {
+		if (pos < 0 || pos >= mHistorySize) {
+			throw new IllegalArgumentException("pos out of range");
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.view;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.graphics.Canvas;
+
+/**
+ * Shadow of android.view.SurfaceView
+ * The surface is never created, so lockCanvas() always returns null.
+ */
+public class SurfaceView extends View {
+	private final ArrayList<SurfaceHolder.Callback> mCallbacks = new ArrayList<SurfaceHolder.Callback>();
+
+	private final SurfaceHolder mHolder = new SurfaceHolder() {
+		@Override
+		public void addCallback(Callback callback) {
+			mCallbacks.add(callback);
+		}
+
+		@Override
+		public void removeCallback(Callback callback) {
+			mCallbacks.remove(callback);
+		}
+
+		@Override
+		public void setFormat(int format) {
+		}
+
+		@Override
+		public Canvas lockCanvas() {
+			return null;
+		}
+
+		@Override
+		public void unlockCanvasAndPost(Canvas canvas) {
+		}
+	};
+
+	public SurfaceView(Context context) {
+		super(context);
+	}
+
+	public SurfaceHolder getHolder() {
+		return mHolder;
+	}
+
+	public void setZOrderOnTop(boolean onTop) {
+	}
+}
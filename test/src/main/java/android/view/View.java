@@ -0,0 +1,268 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Shadow of android.view.View
+ * Invalidations only mark the view dirty, it is drawn by the next
+ * ViewRoot.performTraversals(). The number of invalidations and of draws
+ * are counted, see getInvalidateCount() and getDrawCount().
+ */
+public class View {
+	public static final int VISIBLE = 0;
+	public static final int INVISIBLE = 4;
+	public static final int GONE = 8;
+
+	private static Handler sHandler;
+
+	private final Context	mContext;
+	ViewGroup				mParent;
+	private boolean			mAttached = false;
+
+	private int		mLeft, mTop, mRight, mBottom;
+	private int		mVisibility = VISIBLE;
+	private int		mBackgroundColor = Color.TRANSPARENT;
+	private boolean	mFocusable, mFocusableInTouchMode;
+
+	// Drawing state
+	private volatile boolean	mDirty = false;
+	volatile boolean			mChildDirty = false;
+	private volatile int		mInvalidateCount = 0;
+	private int					mDrawCount = 0;
+
+	public View(Context context) {
+		this.mContext = context;
+	}
+
+	public Context getContext() {
+		return mContext;
+	}
+
+	public final int getLeft() {
+		return mLeft;
+	}
+
+	public final int getTop() {
+		return mTop;
+	}
+
+	public final int getWidth() {
+		return mRight - mLeft;
+	}
+
+	public final int getHeight() {
+		return mBottom - mTop;
+	}
+
+	public final void layout(int l, int t, int r, int b) {
+		int oldWidth = getWidth();
+		int oldHeight = getHeight();
+		boolean changed = l != mLeft || t != mTop || r != mRight || b != mBottom;
+		mLeft = l;
+		mTop = t;
+		mRight = r;
+		mBottom = b;
+		if (getWidth() != oldWidth || getHeight() != oldHeight) {
+			onSizeChanged(getWidth(), getHeight(), oldWidth, oldHeight);
+		}
+		onLayout(changed, l, t, r, b);
+		if (changed) {
+			invalidate();
+		}
+	}
+
+	protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+	}
+
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+	}
+
+	public int getVisibility() {
+		return mVisibility;
+	}
+
+	public void setVisibility(int visibility) {
+		if (visibility != mVisibility) {
+			mVisibility = visibility;
+			if (mParent != null) {
+				mParent.invalidate();
+			}
+		}
+	}
+
+	public void setBackgroundColor(int color) {
+		mBackgroundColor = color;
+		invalidate();
+	}
+
+	public void setFocusable(boolean focusable) {
+		this.mFocusable = focusable;
+	}
+
+	public void setFocusableInTouchMode(boolean focusableInTouchMode) {
+		this.mFocusableInTouchMode = focusableInTouchMode;
+	}
+
+	public void setClickable(boolean clickable) {
+	}
+
+	public final boolean requestFocus() {
+		return mFocusable || mFocusableInTouchMode;
+	}
+
+	public void invalidate() {
+		mInvalidateCount++;
+		markDirty();
+	}
+
+	public void invalidate(Rect dirty) {
+		mInvalidateCount++;
+		markDirty();
+	}
+
+	public void invalidate(int l, int t, int r, int b) {
+		mInvalidateCount++;
+		markDirty();
+	}
+
+	public void postInvalidate() {
+		synchronized (this) {
+			mInvalidateCount++;
+		}
+		markDirty();
+	}
+
+	private void markDirty() {
+		mDirty = true;
+		for (ViewGroup parent = mParent; parent != null; parent = parent.mParent) {
+			parent.mChildDirty = true;
+		}
+	}
+
+	public boolean post(Runnable action) {
+		return getMainHandler().post(action);
+	}
+
+	public boolean postDelayed(Runnable action, long delayMillis) {
+		return getMainHandler().postDelayed(action, delayMillis);
+	}
+
+	public boolean removeCallbacks(Runnable action) {
+		getMainHandler().removeCallbacks(action);
+		return true;
+	}
+
+	private static synchronized Handler getMainHandler() {
+		if (sHandler == null) {
+			sHandler = new Handler(Looper.getMainLooper());
+		}
+		return sHandler;
+	}
+
+	public void draw(Canvas canvas) {
+		boolean dirty = mDirty;
+		mDirty = false;
+		mChildDirty = false;
+		mDrawCount++;
+		if (mBackgroundColor != Color.TRANSPARENT) {
+			canvas.drawColor(mBackgroundColor);
+		}
+		onDraw(canvas);
+		dispatchDraw(canvas, dirty);
+	}
+
+	protected void onDraw(Canvas canvas) {
+	}
+
+	/**
+	 * @param canvas
+	 * @param all true to draw all the children, false to draw only the dirty ones
+	 */
+	void dispatchDraw(Canvas canvas, boolean all) {
+	}
+
+	public boolean dispatchTouchEvent(MotionEvent event) {
+		return onTouchEvent(event);
+	}
+
+	public boolean onTouchEvent(MotionEvent event) {
+		return false;
+	}
+
+	public boolean dispatchKeyEvent(KeyEvent event) {
+		return (event.getAction() == KeyEvent.ACTION_DOWN) && onKeyDown(event.getKeyCode(), event);
+	}
+
+	public boolean onKeyDown(int keyCode, KeyEvent event) {
+		return false;
+	}
+
+	void dispatchAttachedToWindow() {
+		mAttached = true;
+		onAttachedToWindow();
+	}
+
+	void dispatchDetachedFromWindow() {
+		onDetachedFromWindow();
+		mAttached = false;
+	}
+
+	protected void onAttachedToWindow() {
+	}
+
+	protected void onDetachedFromWindow() {
+	}
+
+	/**
+	 * Shadow only
+	 * @return true if the view is attached to a ViewRoot
+	 */
+	public boolean isAttached() {
+		return mAttached;
+	}
+
+	/**
+	 * Shadow only
+	 * @return true if the view or one of its children must be drawn again
+	 */
+	public boolean isDirty() {
+		return mDirty || mChildDirty;
+	}
+
+	/**
+	 * Shadow only
+	 * @return The number of invalidate() and postInvalidate() calls on this view
+	 */
+	public int getInvalidateCount() {
+		return mInvalidateCount;
+	}
+
+	/**
+	 * Shadow only
+	 * @return The number of times this view was drawn
+	 */
+	public int getDrawCount() {
+		return mDrawCount;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.view;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.graphics.Canvas;
+
+/**
+ * Shadow of android.view.ViewGroup
+ * The last child is drawn on top, and receives the touch events first.
+ */
+public abstract class ViewGroup extends View {
+	private final ArrayList<View> mChildren = new ArrayList<View>();
+
+	public ViewGroup(Context context) {
+		super(context);
+	}
+
+	public void addView(View child) {
+		addView(child, -1);
+	}
+
+	public void addView(View child, int index) {
+		if (child.mParent != null) {
+			throw new IllegalStateException("The specified child already has a parent.");
+		}
+		if (index < 0) {
+			mChildren.add(child);
+		} else {
+			mChildren.add(index, child);
+		}
+		child.mParent = this;
+		if (isAttached()) {
+			child.dispatchAttachedToWindow();
+		}
+		requestChildLayout(child);
+		invalidate();
+	}
+
+	public void removeView(View child) {
+		if (mChildren.remove(child)) {
+			if (isAttached()) {
+				child.dispatchDetachedFromWindow();
+			}
+			child.mParent = null;
+			invalidate();
+		}
+	}
+
+	public void bringChildToFront(View child) {
+		if (mChildren.remove(child)) {
+			mChildren.add(child);
+		}
+	}
+
+	public int getChildCount() {
+		return mChildren.size();
+	}
+
+	public View getChildAt(int index) {
+		return (index >= 0 && index < mChildren.size()) ? mChildren.get(index) : null;
+	}
+
+	/**
+	 * Lay out a child added after the layout of this group
+	 */
+	void requestChildLayout(View child) {
+		if (getWidth() > 0 || getHeight() > 0) {
+			onLayout(false, getLeft(), getTop(), getLeft() + getWidth(), getTop() + getHeight());
+		}
+	}
+
+	@Override
+	protected abstract void onLayout(boolean changed, int l, int t, int r, int b);
+
+	@Override
+	void dispatchDraw(Canvas canvas, boolean all) {
+		for (int i=0; i<mChildren.size(); i++) {
+			View child = mChildren.get(i);
+			if (child.getVisibility() == VISIBLE && (all || child.isDirty())) {
+				child.draw(canvas);
+			}
+		}
+	}
+
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent event) {
+		for (int i=mChildren.size() - 1; i>=0; i--) {
+			View child = mChildren.get(i);
+			if (child.getVisibility() == VISIBLE && child.dispatchTouchEvent(event)) {
+				return true;
+			}
+		}
+		return onTouchEvent(event);
+	}
+
+	@Override
+	public boolean dispatchKeyEvent(KeyEvent event) {
+		for (int i=mChildren.size() - 1; i>=0; i--) {
+			View child = mChildren.get(i);
+			if (child.getVisibility() == VISIBLE && child.dispatchKeyEvent(event)) {
+				return true;
+			}
+		}
+		return super.dispatchKeyEvent(event);
+	}
+
+	@Override
+	void dispatchAttachedToWindow() {
+		super.dispatchAttachedToWindow();
+		for (int i=0; i<mChildren.size(); i++) {
+			mChildren.get(i).dispatchAttachedToWindow();
+		}
+	}
+
+	@Override
+	void dispatchDetachedFromWindow() {
+		for (int i=0; i<mChildren.size(); i++) {
+			mChildren.get(i).dispatchDetachedFromWindow();
+		}
+		super.dispatchDetachedFromWindow();
+	}
+}
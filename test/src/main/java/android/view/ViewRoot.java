@@ -0,0 +1,79 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.view;
+
+import android.graphics.Canvas;
+
+/**
+ * Shadow of the hidden android.view.ViewRoot: the window holding a view hierarchy
+ * The test drives it: performTraversals() draws the dirty views, as the
+ * framework does once per frame, and the events are dispatched as the
+ * framework does when they are received.
+ */
+public final class ViewRoot {
+	private final View		mView;
+	private final Canvas	mCanvas = new Canvas();
+	private int				mTraversals = 0;
+
+	/**
+	 * Attach the view to a window of the given size
+	 */
+	public ViewRoot(View view, int width, int height) {
+		this.mView = view;
+		view.dispatchAttachedToWindow();
+		view.layout(0, 0, width, height);
+	}
+
+	public View getView() {
+		return mView;
+	}
+
+	/**
+	 * Draw the views invalidated since the last traversal
+	 * @return true if something was drawn
+	 */
+	public boolean performTraversals() {
+		if (!mView.isDirty()) {
+			return false;
+		}
+		mTraversals++;
+		mView.draw(mCanvas);
+		return true;
+	}
+
+	/**
+	 * @return The number of traversals which drew something
+	 */
+	public int getTraversalCount() {
+		return mTraversals;
+	}
+
+	public boolean dispatchTouchEvent(MotionEvent event) {
+		return mView.dispatchTouchEvent(event);
+	}
+
+	public boolean dispatchKeyEvent(KeyEvent event) {
+		return mView.dispatchKeyEvent(event);
+	}
+
+	/**
+	 * Detach the view from the window
+	 */
+	public void die() {
+		mView.dispatchDetachedFromWindow();
+	}
+}
@@ -0,0 +1,43 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package android.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Shadow of android.widget.FrameLayout: every child fills the layout
+ */
+public class FrameLayout extends ViewGroup {
+	public FrameLayout(Context context) {
+		super(context);
+	}
+
+	public FrameLayout(Context context, AttributeSet attrs) {
+		super(context);
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		for (int i=0; i<getChildCount(); i++) {
+			View child = getChildAt(i);
+			child.layout(0, 0, r - l, b - t);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+/**
+ * Identifiers of the resources used by the library
+ * Generated by aapt in the application build, written here as the library
+ * is built without the Android tools.
+ */
+public final class R {
+	public static final class attr {
+		public static final int renderThread = 0x7f010000;
+	}
+
+	public static final class styleable {
+		public static final int[] SmartMenuOverlayView = { attr.renderThread };
+		public static final int SmartMenuOverlayView_renderThread = 0;
+	}
+}
@@ -0,0 +1,271 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import java.lang.management.ManagementFactory;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewRoot;
+
+/**
+ * A menu attached to a window of the shadow Android, driven frame by frame
+ *
+ * The clock only moves when a frame is requested, and the tasks posted to
+ * the main thread are run just before the frame is drawn, as Android does.
+ * The bytes allocated on the test thread are measured around each frame
+ * and each touch event.
+ */
+class SmartMenuHarness {
+	static final int WIDTH = 480;
+	static final int HEIGHT = 800;
+	static final int ITEM_COUNT = 8;
+	// Interval between two frames, in milliseconds
+	static final long FRAME_TIME = 16;
+
+	private static final long ICONS_TIMEOUT = 5000;
+
+	final SmartMenuOverlayView	mMenu;
+	// The view drawing the circle, the items and the halo
+	final View					mCircle;
+	final ViewRoot				mRoot;
+
+	private final com.sun.management.ThreadMXBean	mThreads;
+	private final long	mThreadId;
+	// Bytes counted by a measure around nothing
+	private final long	mMeasureCost;
+	private boolean		mLastFrameDrawn = false;
+
+	SmartMenuHarness() {
+		this(WIDTH, HEIGHT);
+	}
+
+	/**
+	 * @param width Size of the window
+	 * @param height Size of the window
+	 */
+	SmartMenuHarness(int width, int height) {
+		Looper.prepareMainLooper();
+		mThreads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		mThreads.setThreadAllocatedMemoryEnabled(true);
+		mThreadId = Thread.currentThread().getId();
+		long cost = Long.MAX_VALUE;
+		for (int i=0; i<8; i++) {
+			long start = getAllocatedBytes();
+			cost = Math.min(cost, getAllocatedBytes() - start);
+		}
+		mMeasureCost = cost;
+
+		Context context = new Context() {
+		};
+		mMenu = new SmartMenuOverlayView(context);
+		// The governor reads the real clock, frames would depend on the machine
+		mMenu.setQualityGovernorEnabled(false);
+		mCircle = mMenu.getChildAt(0);
+
+		mMenu.beginItemsUpdate();
+		for (int i=0; i<ITEM_COUNT; i++) {
+			mMenu.addMenuItem(new SmartMenuOverlayView.SmartMenuItem("Item " + i,
+					Bitmap.createBitmap(64, 64, Bitmap.Config.ARGB_8888)));
+		}
+		mMenu.endItemsUpdate();
+		mRoot = new ViewRoot(mMenu, width, height);
+		waitForIcons();
+	}
+
+	/**
+	 * Run the main thread tasks until the icons prepared in background are ready
+	 */
+	private void waitForIcons() {
+		long end = System.currentTimeMillis() + ICONS_TIMEOUT;
+		while (!iconsReady()) {
+			if (System.currentTimeMillis() > end) {
+				throw new IllegalStateException("Icons not ready after " + ICONS_TIMEOUT + " ms");
+			}
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			Looper.getMainLooper().runPendingTasks();
+		}
+	}
+
+	private boolean iconsReady() {
+		for (int i=0; i<ITEM_COUNT; i++) {
+			if (mMenu.getMenuItem(i).getIcon() == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Run the whole scenario once, so that classes are loaded and lazily
+	 * built objects exist before anything is measured. The menu is closed
+	 * at the end.
+	 */
+	void warmUp() {
+		mMenu.open(true);
+		settle();
+		moveAcrossItem(0, 8);
+		touch(obtain(MotionEvent.ACTION_UP, getCenterX(), getCenterY()));
+		frame();
+		touch(obtain(MotionEvent.ACTION_UP, getItemX(0), getItemY(0)));
+		if (mMenu.isOpened()) {
+			throw new IllegalStateException("The menu is still opened after the warm up");
+		}
+		settle();
+	}
+
+	/**
+	 * @return Bytes allocated by the current thread since it started
+	 */
+	private long getAllocatedBytes() {
+		return mThreads.getThreadAllocatedBytes(mThreadId);
+	}
+
+	/**
+	 * Move the clock to the next frame, run the due tasks and draw the dirty views
+	 * @return The bytes allocated to draw the frame
+	 */
+	long frame() {
+		SystemClock.advanceUptimeMillis(FRAME_TIME);
+		Looper.getMainLooper().runPendingTasks();
+		long start = getAllocatedBytes();
+		boolean drawn = mRoot.performTraversals();
+		long allocated = getAllocatedBytes() - start - mMeasureCost;
+		mLastFrameDrawn = drawn;
+		return allocated;
+	}
+
+	/**
+	 * @return true if the last frame drew something
+	 */
+	boolean isLastFrameDrawn() {
+		return mLastFrameDrawn;
+	}
+
+	/**
+	 * Draw frames until the menu stops asking for them
+	 * @return The number of frames drawn
+	 */
+	int settle() {
+		int frames = 0;
+		while (true) {
+			frame();
+			if (!mLastFrameDrawn) {
+				return frames;
+			}
+			if (++frames > 10 * mMenu.getAnimationDuration() / FRAME_TIME) {
+				throw new IllegalStateException("The menu is still drawn after " + frames + " frames");
+			}
+		}
+	}
+
+	/**
+	 * Dispatch a touch event to the window, as Android does when it is received
+	 * @param event
+	 * @return The bytes allocated to handle the event
+	 */
+	long touch(MotionEvent event) {
+		long start = getAllocatedBytes();
+		mRoot.dispatchTouchEvent(event);
+		return getAllocatedBytes() - start - mMeasureCost;
+	}
+
+	/**
+	 * Press the back key
+	 */
+	void back() {
+		mRoot.dispatchKeyEvent(new KeyEvent(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_BACK));
+	}
+
+	/**
+	 * Touch the center, then move to an item, one event and one frame per step
+	 * @param index Index of the item
+	 * @param steps Number of move events
+	 */
+	void moveAcrossItem(int index, int steps) {
+		MotionEvent[] events = obtainMoves(getCenterX(), getCenterY(), getItemX(index), getItemY(index), steps);
+		touch(obtain(MotionEvent.ACTION_DOWN, getCenterX(), getCenterY()));
+		frame();
+		for (int i=0; i<events.length; i++) {
+			touch(events[i]);
+			frame();
+		}
+	}
+
+	/**
+	 * @return A new event at the current time
+	 */
+	MotionEvent obtain(int action, float x, float y) {
+		long now = SystemClock.uptimeMillis();
+		return MotionEvent.obtain(now, now, action, x, y, 0);
+	}
+
+	/**
+	 * Build in advance the move events going from a point to another, one per frame,
+	 * so that building them is not measured
+	 * @return The events, the last one is at the end point
+	 */
+	MotionEvent[] obtainMoves(float fromX, float fromY, float toX, float toY, int steps) {
+		MotionEvent[] events = new MotionEvent[steps];
+		long now = SystemClock.uptimeMillis();
+		for (int i=0; i<steps; i++) {
+			float progress = (float) (i + 1) / steps;
+			events[i] = MotionEvent.obtain(now, now + (i + 1) * FRAME_TIME, MotionEvent.ACTION_MOVE,
+					fromX + (toX - fromX) * progress, fromY + (toY - fromY) * progress, 0);
+		}
+		return events;
+	}
+
+	/**
+	 * @return The center of the menu, which is not on an item
+	 */
+	float getCenterX() {
+		float sum = 0;
+		for (int i=0; i<ITEM_COUNT; i++) {
+			sum += getItemX(i);
+		}
+		return sum / ITEM_COUNT;
+	}
+
+	float getCenterY() {
+		float sum = 0;
+		for (int i=0; i<ITEM_COUNT; i++) {
+			sum += getItemY(i);
+		}
+		return sum / ITEM_COUNT;
+	}
+
+	/**
+	 * @return The center of an item, known once the menu is opened
+	 */
+	float getItemX(int index) {
+		return mMenu.getMenuItem(index).getX();
+	}
+
+	float getItemY(int index) {
+		return mMenu.getMenuItem(index).getY();
+	}
+}
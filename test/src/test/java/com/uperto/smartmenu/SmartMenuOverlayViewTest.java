@@ -0,0 +1,269 @@
+/*
+   Copyright 2011 Devoteam/Uperto
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.uperto.smartmenu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.view.MotionEvent;
+
+/**
+ * Redraws and allocations of the menu while it opens and while it is touched
+ * The menu is warmed up first, so that only the steady state is measured.
+ */
+public class SmartMenuOverlayViewTest {
+	// Redraws requested by open(), before the first frame
+	private static final int MAX_OPEN_INVALIDATES = 1;
+	// Redraws requested by each frame of the animation, for the next one
+	private static final int MAX_FRAME_INVALIDATES = 1;
+	// Redraws requested by each touch event
+	private static final int MAX_TOUCH_INVALIDATES = 1;
+	// Bytes allocated to handle each touch event
+	private static final long MAX_TOUCH_BYTES = 0;
+	// Bytes allocated to draw each frame, except the one building the static layer
+	private static final long MAX_FRAME_BYTES = 0;
+	// Frames drawn once the menu settled, when nothing happens
+	private static final int IDLE_FRAMES = 10;
+
+	private SmartMenuHarness mHarness;
+
+	@Before
+	public void setUp() {
+		mHarness = new SmartMenuHarness();
+		mHarness.warmUp();
+	}
+
+	@Test
+	public void testOpenAnimation() {
+		int invalidates = mHarness.mCircle.getInvalidateCount();
+		mHarness.mMenu.open(true);
+		assertTrue(mHarness.mMenu.isOpened());
+		assertTrue("open() invalidates too much",
+				mHarness.mCircle.getInvalidateCount() - invalidates <= MAX_OPEN_INVALIDATES);
+
+		int maxFrames = (int) (mHarness.mMenu.getAnimationDuration() / SmartMenuHarness.FRAME_TIME) + 2;
+		int frames = 0;
+		while (true) {
+			invalidates = mHarness.mCircle.getInvalidateCount();
+			int draws = mHarness.mCircle.getDrawCount();
+			mHarness.frame();
+			if (!mHarness.isLastFrameDrawn()) {
+				break;
+			}
+			frames++;
+			assertTrue("The animation lasts " + frames + " frames", frames <= maxFrames);
+			assertEquals("The menu is drawn once per frame", 1, mHarness.mCircle.getDrawCount() - draws);
+			assertTrue("Frame " + frames + " invalidates too much",
+					mHarness.mCircle.getInvalidateCount() - invalidates <= MAX_FRAME_INVALIDATES);
+		}
+		assertTrue("The menu is not animated", frames > 1);
+	}
+
+	@Test
+	public void testFramesDoNotAllocate() {
+		mHarness.mMenu.setUseStaticLayer(false);
+		mHarness.mMenu.open(true);
+		int frames = checkFrameAllocations();
+		assertEquals("A frame allocated without static layer", 0, frames);
+		checkTouchFrameAllocations();
+	}
+
+	@Test
+	public void testOnlyStaticLayerFrameAllocates() {
+		mHarness.mMenu.open(true);
+		int frames = checkFrameAllocations();
+		// The offscreen bitmap is released when the menu is closed
+		assertEquals("Frames allocating with the static layer", 1, frames);
+		checkTouchFrameAllocations();
+	}
+
+	/**
+	 * Draw the frames of the animation until the menu settled
+	 * @return The number of frames which allocated more than MAX_FRAME_BYTES
+	 */
+	private int checkFrameAllocations() {
+		int allocating = 0;
+		while (true) {
+			long bytes = mHarness.frame();
+			if (!mHarness.isLastFrameDrawn()) {
+				return allocating;
+			}
+			if (bytes > MAX_FRAME_BYTES) {
+				allocating++;
+			}
+		}
+	}
+
+	/**
+	 * Move to an item and back, and check that none of the frames allocates
+	 */
+	private void checkTouchFrameAllocations() {
+		float centerX = mHarness.getCenterX();
+		float centerY = mHarness.getCenterY();
+		MotionEvent[] moves = mHarness.obtainMoves(centerX, centerY,
+				mHarness.getItemX(5), mHarness.getItemY(5), 12);
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_DOWN, centerX, centerY));
+		mHarness.frame();
+		for (int i=0; i<moves.length; i++) {
+			mHarness.touch(moves[i]);
+			long bytes = mHarness.frame();
+			assertTrue("Touch frame " + i + " allocated " + bytes + " bytes", bytes <= MAX_FRAME_BYTES);
+		}
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_UP, centerX, centerY));
+		long bytes = mHarness.frame();
+		assertTrue("The frame after up allocated " + bytes + " bytes", bytes <= MAX_FRAME_BYTES);
+	}
+
+	@Test
+	public void testSmallViewIsDrawnWithoutStaticLayer() {
+		// The menu has no extent, the static layer cannot be built
+		SmartMenuHarness harness = new SmartMenuHarness(12, 12);
+		harness.mMenu.open(false);
+		harness.frame();
+		assertTrue(harness.isLastFrameDrawn());
+		assertTrue(harness.mMenu.isOpened());
+	}
+
+	@Test
+	public void testSettledMenuIsNotRedrawn() {
+		mHarness.mMenu.open(true);
+		mHarness.settle();
+
+		int invalidates = mHarness.mCircle.getInvalidateCount();
+		int draws = mHarness.mCircle.getDrawCount();
+		for (int i=0; i<IDLE_FRAMES; i++) {
+			mHarness.frame();
+			assertFalse("Idle frame " + i + " is drawn", mHarness.isLastFrameDrawn());
+		}
+		assertEquals(0, mHarness.mCircle.getInvalidateCount() - invalidates);
+		assertEquals(0, mHarness.mCircle.getDrawCount() - draws);
+	}
+
+	@Test
+	public void testMoveDoesNotAllocate() {
+		openSettled();
+		float centerX = mHarness.getCenterX();
+		float centerY = mHarness.getCenterY();
+		MotionEvent[] moves = mHarness.obtainMoves(centerX, centerY,
+				mHarness.getItemX(2), mHarness.getItemY(2), 16);
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_DOWN, centerX, centerY));
+		mHarness.frame();
+
+		for (int i=0; i<moves.length; i++) {
+			int invalidates = mHarness.mCircle.getInvalidateCount();
+			long bytes = mHarness.touch(moves[i]);
+			assertTrue("Move " + i + " allocated " + bytes + " bytes", bytes <= MAX_TOUCH_BYTES);
+			assertTrue("Move " + i + " invalidates too much",
+					mHarness.mCircle.getInvalidateCount() - invalidates <= MAX_TOUCH_INVALIDATES);
+			mHarness.frame();
+		}
+	}
+
+	@Test
+	public void testBatchedMoveDoesNotAllocate() {
+		openSettled();
+		float centerX = mHarness.getCenterX();
+		float centerY = mHarness.getCenterY();
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_DOWN, centerX, centerY));
+		mHarness.frame();
+
+		// A fast move across an item, reported as a single event
+		MotionEvent[] moves = mHarness.obtainMoves(centerX, centerY,
+				2 * mHarness.getItemX(4) - centerX, 2 * mHarness.getItemY(4) - centerY, 8);
+		MotionEvent batched = moves[0];
+		for (int i=1; i<moves.length; i++) {
+			batched.addBatch(moves[i].getEventTime(), moves[i].getX(), moves[i].getY(), 1, 1, 0);
+		}
+		int invalidates = mHarness.mCircle.getInvalidateCount();
+		long bytes = mHarness.touch(batched);
+		assertTrue("The batched move allocated " + bytes + " bytes", bytes <= MAX_TOUCH_BYTES);
+		assertTrue(mHarness.mCircle.getInvalidateCount() - invalidates <= MAX_TOUCH_INVALIDATES);
+	}
+
+	@Test
+	public void testMovesOfAFrameAreDrawnOnce() {
+		openSettled();
+		float centerX = mHarness.getCenterX();
+		float centerY = mHarness.getCenterY();
+		MotionEvent[] moves = mHarness.obtainMoves(centerX, centerY,
+				mHarness.getItemX(6), mHarness.getItemY(6), 6);
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_DOWN, centerX, centerY));
+		mHarness.frame();
+
+		// Several events received before the next frame
+		int draws = mHarness.mCircle.getDrawCount();
+		for (int i=0; i<moves.length; i++) {
+			mHarness.touch(moves[i]);
+		}
+		mHarness.frame();
+		assertEquals("The moves must be drawn by a single frame", 1, mHarness.mCircle.getDrawCount() - draws);
+		mHarness.frame();
+		assertFalse("The moves are drawn again", mHarness.isLastFrameDrawn());
+	}
+
+	@Test
+	public void testUpOutsideItemsKeepsMenuOpened() {
+		openSettled();
+		mHarness.moveAcrossItem(0, 4);
+		MotionEvent up = mHarness.obtain(MotionEvent.ACTION_UP, mHarness.getCenterX(), mHarness.getCenterY());
+
+		int invalidates = mHarness.mCircle.getInvalidateCount();
+		long bytes = mHarness.touch(up);
+		assertTrue("Up allocated " + bytes + " bytes", bytes <= MAX_TOUCH_BYTES);
+		assertTrue(mHarness.mCircle.getInvalidateCount() - invalidates <= MAX_TOUCH_INVALIDATES);
+		assertTrue(mHarness.mMenu.isOpened());
+	}
+
+	@Test
+	public void testUpOnItemClosesMenu() {
+		openSettled();
+		mHarness.moveAcrossItem(3, 4);
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_UP, mHarness.getItemX(3), mHarness.getItemY(3)));
+		assertFalse(mHarness.mMenu.isOpened());
+	}
+
+	@Test
+	public void testHiddenItemsCannotBeSelected() {
+		mHarness.mMenu.open(true);
+		// Only the circle is drawn by the first frames
+		mHarness.frame();
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_DOWN, mHarness.getItemX(7), mHarness.getItemY(7)));
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_UP, mHarness.getItemX(7), mHarness.getItemY(7)));
+		assertTrue("An item was selected before its branch is drawn", mHarness.mMenu.isOpened());
+
+		mHarness.settle();
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_DOWN, mHarness.getItemX(7), mHarness.getItemY(7)));
+		mHarness.touch(mHarness.obtain(MotionEvent.ACTION_UP, mHarness.getItemX(7), mHarness.getItemY(7)));
+		assertFalse(mHarness.mMenu.isOpened());
+	}
+
+	@Test
+	public void testBackClosesMenu() {
+		openSettled();
+		mHarness.back();
+		assertFalse(mHarness.mMenu.isOpened());
+	}
+
+	private void openSettled() {
+		mHarness.mMenu.open(true);
+		mHarness.settle();
+	}
+}